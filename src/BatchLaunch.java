@@ -0,0 +1,11 @@
+import components.BatchRunner;
+
+/* This class is the entry point used to run a program without the console window, for example on a server with no
+ * display. See the BatchRunner class for its options.
+ */
+public class BatchLaunch {
+	public static void main(String[] args) {
+		System.exit(BatchRunner.run(args));
+	}
+
+}
@@ -0,0 +1,60 @@
+package components;
+
+/* The ALU class does the integer arithmetic of the machine on 16 bit words held in ints, the interpreter and the
+ * translated blocks sharing it. Words are read as signed two's complement values where the instruction asks for it.
+ * As with FPU, the functions setting condition codes return the resulting word with the bits they set shifted left by
+ * FLAGS_SHIFT, so the caller stores the low 16 bits and ORs the rest into CC without testing anything: a result above
+ * the largest word sets OVERFLOW and one below the smallest sets UNDERFLOW.
+ */
+public final class ALU {
+
+	static final int FLAGS_SHIFT = FPU.FLAGS_SHIFT; // Condition code bits returned with a result are shifted left by this much
+
+	private ALU() {
+	}
+
+	// Function returning the condition code bits a signed result computed in an int sets, which is a single comparison
+	// for the usual result that fits in a word
+	static int overflowFlags(int result) {
+		if (result == (short) result) {
+			return 0;
+		}
+		return result > 0 ? CPU.CC_OVERFLOW : CPU.CC_UNDERFLOW;
+	}
+
+	// Function returning a + b with the flags it sets
+	public static int add(int a, int b) {
+		int sum = (short) a + (short) b;
+		return (sum & Word.MASK) | (overflowFlags(sum) << FLAGS_SHIFT);
+	}
+
+	// Function returning a - b with the flags it sets
+	public static int subtract(int a, int b) {
+		int difference = (short) a - (short) b;
+		return (difference & Word.MASK) | (overflowFlags(difference) << FLAGS_SHIFT);
+	}
+
+	// Function returning the 32 bit product a x b, which always fits so sets nothing
+	public static int multiply(int a, int b) {
+		return (short) a * (short) b;
+	}
+
+	// Function shifting a word by count bits, to the left or right, arithmetically (keeping the sign when shifting
+	// right) or logically
+	public static int shift(int word, int count, boolean left, boolean logical) {
+		if (left) {
+			return (word << count) & Word.MASK;
+		}
+		return logical ? (word & Word.MASK) >>> count : ((short) word >> count) & Word.MASK;
+	}
+
+	// Function rotating a word by count bits to the left or right
+	public static int rotate(int word, int count, boolean left) {
+		count %= Word.BITS;
+		word &= Word.MASK;
+		if (left) {
+			return ((word << count) | (word >>> (Word.BITS - count))) & Word.MASK;
+		}
+		return ((word >>> count) | (word << (Word.BITS - count))) & Word.MASK;
+	}
+}
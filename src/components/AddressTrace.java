@@ -0,0 +1,48 @@
+package components;
+
+import java.util.Arrays;
+
+/* The AddressTrace class records the stream of accesses going into the caches (instruction fetches, data reads and
+ * data writes) so it can be replayed later through caches of other shapes, see CacheSweep. Every instruction fetch is
+ * recorded, including those of instructions already decoded and of translated blocks, so loops fetch their code
+ * again in a replay as they did in the run.
+ * Each access is packed in an int: the address shifted left by two, with the kind of access in the low two bits.
+ */
+public class AddressTrace {
+
+	// Kinds of access
+	public static final int INSTRUCTION = 0;
+	public static final int READ = 1;
+	public static final int WRITE = 2;
+
+	private int[] accesses = new int[1 << 16];
+	private int size;
+
+	// Function to append an access to the trace
+	public void record(int kind, int address) {
+		if (size == accesses.length) {
+			accesses = Arrays.copyOf(accesses, size * 2);
+		}
+		accesses[size++] = (address << 2) | kind;
+	}
+
+	// Number of accesses recorded
+	public int size() {
+		return size;
+	}
+
+	// Kind of the access at the given position in the trace
+	public int kindAt(int index) {
+		return accesses[index] & 0b11;
+	}
+
+	// Address of the access at the given position in the trace
+	public int addressAt(int index) {
+		return accesses[index] >>> 2;
+	}
+
+	// Function to empty the trace
+	public void clear() {
+		size = 0;
+	}
+}
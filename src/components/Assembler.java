@@ -0,0 +1,546 @@
+package components;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/* The Assembler class turns a program written with the mnemonics of the instructions, as in Project1.txt, into a
+ * ProgramImage. It works in two passes: the first one places every statement and gives each label its address, the
+ * second one encodes the words, labels being usable before they are defined.
+ * Each line holds at most one statement, anything after // or ; being a comment:
+ *   [label:] MNEMONIC operands      an instruction, its operands separated by commas
+ *   [label:] DATA value, ...        one word per value
+ *   [label:] SPACE n                n words of 0
+ *   label: EQU value                a label standing for a value rather than an address
+ *   LOC address                     the next words are placed from address on (10 at the start)
+ *   ENTRY address                   the address execution starts at (the first instruction otherwise)
+ * The operands of each instruction follow the instruction set:
+ *   r, x, address[,I]  LDR, STR, LDA, AMR, SMR, JZ, JNE, JCC (cc instead of r), SOB, JGE, CNVRT, the floating point
+ *                      and vector instructions (fr instead of r)
+ *   x, address[,I]     LDX, STX, JMA, JSR
+ *   r, immed           AIR, SIR
+ *   immed              RFS
+ *   rx, ry             MLT, DVD, TRR, AND, ORR
+ *   rx                 NOT
+ *   r, count, L/R, A/L SRC, RRC (L/R 1 for left, A/L 1 for logical)
+ *   code               TRAP
+ *   r, devid           IN, OUT
+ * Values are decimal, hexadecimal with 0x or binary with 0b, or labels. An address field written with five binary
+ * digits (ex: 01000) is read in binary, as Project1.txt writes them. Indirect addressing is asked for with a last
+ * operand of I (or [,I] as in Project1.txt) or 1.
+ * A routine starts at each label not starting with a dot and ends where the next one starts. The listing gives the
+ * words of each statement, the labels and, for each routine, where it is and how many words it takes.
+ */
+public final class Assembler {
+
+	static final int START = 10; // Address the words are placed from when no LOC says otherwise
+
+	// The operands each instruction takes, see the class comment
+	enum Format {
+		NONE, LOAD_STORE, FLOATING, INDEX, IMMEDIATE, RETURN, REGISTERS, REGISTER, SHIFT, TRAP, IO
+	}
+
+	// A routine of the program and the words it takes
+	public static final class Routine {
+		public final String name;
+		public int first = -1; // Lowest address of a word of the routine, -1 when it has none
+		public int last = -1; // Highest address of a word of the routine
+		public int instructions;
+		public int dataWords;
+
+		Routine(String name) {
+			this.name = name;
+		}
+
+		public int words() {
+			return instructions + dataWords;
+		}
+	}
+
+	// A line of source and where its words went
+	private static final class Statement {
+		final int lineNumber;
+		final String source;
+		String label;
+		String mnemonic; // Upper case, null for a line without a statement
+		String[] operands;
+		int address; // Address of the first word of the statement
+		int length; // Words the statement places
+		Routine routine;
+
+		Statement(int lineNumber, String source) {
+			this.lineNumber = lineNumber;
+			this.source = source;
+		}
+	}
+
+	private static final Map<String, Integer> OPCODES = new HashMap<>();
+	private static final Format[] FORMATS = new Format[64];
+	static {
+		for (int opcode = 0; opcode < 64; opcode++) {
+			String mnemonic = CPU.mnemonic(opcode);
+			if (!mnemonic.startsWith("OP")) {
+				OPCODES.put(mnemonic, opcode);
+			}
+		}
+		for (String mnemonic : new String[] { "LDR", "STR", "LDA", "AMR", "SMR", "JZ", "JNE", "JCC", "SOB", "JGE",
+				"CNVRT" }) {
+			FORMATS[OPCODES.get(mnemonic)] = Format.LOAD_STORE;
+		}
+		for (String mnemonic : new String[] { "FADD", "FSUB", "FMUL", "FDIV", "FCMP", "LDFR", "STFR", "VADD", "VSUB",
+				"VMUL", "VDOT" }) {
+			FORMATS[OPCODES.get(mnemonic)] = Format.FLOATING;
+		}
+		for (String mnemonic : new String[] { "LDX", "STX", "JMA", "JSR" }) {
+			FORMATS[OPCODES.get(mnemonic)] = Format.INDEX;
+		}
+		for (String mnemonic : new String[] { "MLT", "DVD", "TRR", "AND", "ORR" }) {
+			FORMATS[OPCODES.get(mnemonic)] = Format.REGISTERS;
+		}
+		FORMATS[OPCODES.get("HALT")] = Format.NONE;
+		FORMATS[OPCODES.get("AIR")] = Format.IMMEDIATE;
+		FORMATS[OPCODES.get("SIR")] = Format.IMMEDIATE;
+		FORMATS[OPCODES.get("RFS")] = Format.RETURN;
+		FORMATS[OPCODES.get("NOT")] = Format.REGISTER;
+		FORMATS[OPCODES.get("SRC")] = Format.SHIFT;
+		FORMATS[OPCODES.get("RRC")] = Format.SHIFT;
+		FORMATS[OPCODES.get("TRAP")] = Format.TRAP;
+		FORMATS[OPCODES.get("IN")] = Format.IO;
+		FORMATS[OPCODES.get("OUT")] = Format.IO;
+	}
+
+	public final ProgramImage image;
+	public final List<Routine> routines;
+
+	private final List<Statement> statements = new ArrayList<>();
+	private final Map<String, Integer> symbols = new LinkedHashMap<>();
+	private final short[] words = new short[2048];
+	private final boolean[] placed = new boolean[2048];
+	private final List<String> errors = new ArrayList<>();
+	private final List<Routine> routineList = new ArrayList<>();
+	private String entry; // Operand of ENTRY, null without one
+	private Statement current; // Statement errors are reported against
+
+	// Constructor assembling the lines of a program. Throws IllegalArgumentException listing every error found
+	public Assembler(List<String> lines) {
+		firstPass(lines);
+		secondPass();
+		int entryPC = entryPC();
+		if (!errors.isEmpty()) {
+			throw new IllegalArgumentException(String.join("\n", errors));
+		}
+		image = new ProgramImage(entryPC, segments(), symbols);
+		routines = Collections.unmodifiableList(routineList);
+	}
+
+	// Function assembling a source file
+	public static Assembler assembleFile(String fileName) throws IOException {
+		return new Assembler(Files.readAllLines(Paths.get(fileName), StandardCharsets.UTF_8));
+	}
+
+	// Function telling whether lines look like assembly source rather than the binary words of Program_1.txt: any
+	// statement that is not a 16 digit binary word
+	public static boolean isSource(List<String> lines) {
+		for (String line : lines) {
+			String text = line.trim();
+			if (text.isEmpty()) {
+				continue;
+			}
+			if (text.length() != Word.BITS || !isBinary(text)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// First pass: split each line into its parts, place it and define its label
+	private void firstPass(List<String> lines) {
+		int location = START;
+		Routine routine = null;
+		for (int i = 0; i < lines.size(); i++) {
+			Statement statement = parse(i + 1, lines.get(i));
+			current = statement;
+			statements.add(statement);
+
+			if (statement.label != null && !"EQU".equals(statement.mnemonic)) {
+				define(statement.label, location);
+				if (!statement.label.startsWith(".")) {
+					routine = new Routine(statement.label);
+					routineList.add(routine);
+				}
+			}
+			if (statement.mnemonic == null) {
+				continue;
+			}
+
+			switch (statement.mnemonic) {
+			case "LOC":
+				if (operandCount(1)) {
+					location = value(statement.operands[0], 0, words.length - 1);
+				}
+				break;
+			case "ENTRY":
+				if (operandCount(1)) {
+					entry = statement.operands[0];
+				}
+				break;
+			case "EQU":
+				if (statement.label == null) {
+					error("EQU needs a label");
+				} else if (operandCount(1)) {
+					define(statement.label, value(statement.operands[0], Short.MIN_VALUE, Word.MASK));
+				}
+				break;
+			case "DATA":
+				statement.length = statement.operands.length;
+				if (statement.length == 0) {
+					error("DATA needs at least one value");
+				}
+				break;
+			case "SPACE":
+				if (operandCount(1)) {
+					statement.length = value(statement.operands[0], 0, words.length);
+				}
+				break;
+			default:
+				if (OPCODES.containsKey(statement.mnemonic)) {
+					statement.length = 1;
+				} else {
+					error("Unknown instruction " + statement.mnemonic);
+				}
+				break;
+			}
+
+			if (statement.length > 0) {
+				if (routine == null) {
+					routine = new Routine("(start)");
+					routineList.add(routine);
+				}
+				statement.routine = routine;
+			}
+			statement.address = location;
+			location += statement.length;
+		}
+	}
+
+	// Second pass: encode the words of each statement
+	private void secondPass() {
+		for (Statement statement : statements) {
+			current = statement;
+			if (statement.length == 0) {
+				continue;
+			}
+			if (statement.address + statement.length > words.length) {
+				error("Past the end of memory");
+				break;
+			}
+
+			Routine routine = statement.routine;
+			if (routine.first < 0 || statement.address < routine.first) {
+				routine.first = statement.address;
+			}
+			routine.last = Math.max(routine.last, statement.address + statement.length - 1);
+
+			switch (statement.mnemonic) {
+			case "DATA":
+				for (int i = 0; i < statement.length; i++) {
+					place(statement.address + i, value(statement.operands[i], Short.MIN_VALUE, Word.MASK));
+				}
+				routine.dataWords += statement.length;
+				break;
+			case "SPACE":
+				for (int i = 0; i < statement.length; i++) {
+					place(statement.address + i, 0);
+				}
+				routine.dataWords += statement.length;
+				break;
+			default:
+				place(statement.address, encode(statement.mnemonic, statement.operands));
+				routine.instructions++;
+				break;
+			}
+		}
+	}
+
+	// Function splitting a line into its label, mnemonic and operands
+	private static Statement parse(int lineNumber, String line) {
+		Statement statement = new Statement(lineNumber, line);
+		String text = line;
+		int comment = text.indexOf("//");
+		if (comment >= 0) {
+			text = text.substring(0, comment);
+		}
+		comment = text.indexOf(';');
+		if (comment >= 0) {
+			text = text.substring(0, comment);
+		}
+		text = text.trim();
+
+		int colon = text.indexOf(':');
+		if (colon > 0 && text.substring(0, colon).trim().indexOf(' ') < 0) {
+			statement.label = text.substring(0, colon).trim();
+			text = text.substring(colon + 1).trim();
+		}
+		if (text.isEmpty()) {
+			return statement;
+		}
+
+		int space = 0;
+		while (space < text.length() && !Character.isWhitespace(text.charAt(space))) {
+			space++;
+		}
+		statement.mnemonic = text.substring(0, space).toUpperCase();
+		String operands = text.substring(space).trim().replace("[,I]", ",I").replace("[,i]", ",I");
+		if (operands.isEmpty()) {
+			statement.operands = new String[0];
+		} else {
+			statement.operands = operands.split(",");
+			for (int i = 0; i < statement.operands.length; i++) {
+				statement.operands[i] = statement.operands[i].trim();
+			}
+		}
+		return statement;
+	}
+
+	// Function encoding an instruction into its word
+	private int encode(String mnemonic, String[] operands) {
+		int opcode = OPCODES.get(mnemonic);
+		Format format = FORMATS[opcode];
+		int gpr = 0;
+		int ix = 0;
+		int indirect = 0;
+		int address = 0;
+
+		switch (format) {
+		case LOAD_STORE:
+		case FLOATING:
+			indirect = indirectOperand(operands, 3);
+			if (indirect >= 0) {
+				gpr = value(operands[0], 0, format == Format.FLOATING ? 1 : 3);
+				ix = value(operands[1], 0, 3);
+				address = address(operands[2]);
+			}
+			break;
+		case INDEX:
+			indirect = indirectOperand(operands, 2);
+			if (indirect >= 0) {
+				ix = value(operands[0], 0, 3);
+				address = address(operands[1]);
+			}
+			break;
+		case IMMEDIATE:
+		case IO:
+			if (operandCount(2)) {
+				gpr = value(operands[0], 0, 3);
+				address = address(operands[1]);
+			}
+			break;
+		case RETURN:
+		case TRAP:
+			if (operandCount(1)) {
+				address = format == Format.TRAP ? value(operands[0], 0, 15) : address(operands[0]);
+			}
+			break;
+		case REGISTERS:
+			if (operandCount(2)) {
+				gpr = value(operands[0], 0, 3);
+				ix = value(operands[1], 0, 3);
+			}
+			break;
+		case REGISTER:
+			if (operandCount(1)) {
+				gpr = value(operands[0], 0, 3);
+			}
+			break;
+		case SHIFT:
+			if (operandCount(4)) {
+				gpr = value(operands[0], 0, 3);
+				address = value(operands[1], 0, 15);
+				ix = value(operands[2], 0, 1) | (value(operands[3], 0, 1) << 1);
+			}
+			break;
+		case NONE:
+		default:
+			operandCount(0);
+			break;
+		}
+		return (opcode << 10) | (gpr << 8) | (ix << 6) | (Math.max(indirect, 0) << 5) | address;
+	}
+
+	// Function checking that the statement has the given number of operands, reporting an error otherwise
+	private boolean operandCount(int count) {
+		if (current.operands.length != count) {
+			error(current.mnemonic + " takes " + count + " operand" + (count == 1 ? "" : "s") + ", not "
+					+ current.operands.length);
+			return false;
+		}
+		return true;
+	}
+
+	// Function checking that an instruction has the given number of operands, plus an optional last one asking for
+	// indirect addressing (I or 1, 0 meaning direct). Returns the I bit, or -1 after reporting an error
+	private int indirectOperand(String[] operands, int count) {
+		if (operands.length == count) {
+			return 0;
+		}
+		if (operands.length != count + 1) {
+			error(current.mnemonic + " takes " + count + " operands and an optional I, not " + operands.length);
+			return -1;
+		}
+		String last = operands[count];
+		if (last.equals("0")) {
+			return 0;
+		}
+		if (last.equalsIgnoreCase("I") || last.equals("1")) {
+			return 1;
+		}
+		error("Expected I for indirect addressing, not " + last);
+		return -1;
+	}
+
+	// Function returning the value of an address field, five binary digits being read in binary
+	private int address(String text) {
+		if (text.length() == 5 && isBinary(text)) {
+			return Integer.parseInt(text, 2);
+		}
+		return value(text, 0, 31);
+	}
+
+	// Function telling whether text is made of binary digits only
+	private static boolean isBinary(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) != '0' && text.charAt(i) != '1') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Function returning the value of an operand, a number or a label, reporting an error when it is not between min
+	// and max (the value returned then being 0)
+	private int value(String text, int min, int max) {
+		int value;
+		Integer symbol = symbols.get(text);
+		if (symbol != null) {
+			value = symbol;
+		} else if (!text.isEmpty() && (Character.isLetter(text.charAt(0)) || text.charAt(0) == '.'
+				|| text.charAt(0) == '_')) {
+			error("Undefined label " + text);
+			return 0;
+		} else {
+			try {
+				boolean negative = text.startsWith("-");
+				String digits = negative ? text.substring(1) : text;
+				int sign = negative ? -1 : 1;
+				if (digits.startsWith("0x") || digits.startsWith("0X")) {
+					value = sign * Integer.parseInt(digits.substring(2), 16);
+				} else if (digits.startsWith("0b") || digits.startsWith("0B")) {
+					value = sign * Integer.parseInt(digits.substring(2), 2);
+				} else {
+					value = sign * Integer.parseInt(digits);
+				}
+			} catch (NumberFormatException e) {
+				error("Bad value " + text);
+				return 0;
+			}
+		}
+		if (value < min || value > max) {
+			error("Value " + text + " is not between " + min + " and " + max);
+			return 0;
+		}
+		return value;
+	}
+
+	// Function giving a label its value
+	private void define(String label, int value) {
+		if (!Character.isLetter(label.charAt(0)) && label.charAt(0) != '.' && label.charAt(0) != '_') {
+			error("Bad label " + label);
+		} else if (symbols.containsKey(label)) {
+			error("Label " + label + " defined twice");
+		} else {
+			symbols.put(label, value);
+		}
+	}
+
+	// Function placing a word at an address
+	private void place(int address, int word) {
+		if (placed[address]) {
+			error("Address " + address + " already holds a word");
+		}
+		placed[address] = true;
+		words[address] = (short) word;
+	}
+
+	private void error(String message) {
+		errors.add("line " + current.lineNumber + ": " + message);
+	}
+
+	// Function returning the address execution starts at
+	private int entryPC() {
+		if (entry != null) {
+			return value(entry, 0, words.length - 1);
+		}
+		for (Statement statement : statements) {
+			if (statement.length > 0 && OPCODES.containsKey(statement.mnemonic)) {
+				return statement.address;
+			}
+		}
+		return START;
+	}
+
+	// Function returning the runs of consecutive words placed, one segment each
+	private List<ProgramImage.Segment> segments() {
+		List<ProgramImage.Segment> segments = new ArrayList<>();
+		int address = 0;
+		while (address < words.length) {
+			if (!placed[address]) {
+				address++;
+				continue;
+			}
+			int origin = address;
+			while (address < words.length && placed[address]) {
+				address++;
+			}
+			segments.add(new ProgramImage.Segment(origin, Arrays.copyOfRange(words, origin, address)));
+		}
+		return segments;
+	}
+
+	// Function returning the listing of the program: the address and words of each statement next to its source, the
+	// labels, then the routines
+	public String listing() {
+		StringBuilder listing = new StringBuilder();
+		for (Statement statement : statements) {
+			if (statement.length == 0) {
+				listing.append(String.format("%4s  %16s  %s%n", "", "", statement.source));
+				continue;
+			}
+			for (int i = 0; i < statement.length; i++) {
+				int address = statement.address + i;
+				listing.append(String.format("%04d  %s  %s%n", address, Word.toBinaryString(words[address]),
+						i == 0 ? statement.source : ""));
+			}
+		}
+
+		listing.append(String.format("%nLabels%n"));
+		for (Map.Entry<String, Integer> symbol : symbols.entrySet()) {
+			listing.append(String.format("  %-20s %5d%n", symbol.getKey(), symbol.getValue()));
+		}
+
+		listing.append(String.format("%nRoutines%n  %-20s %5s %5s %5s %12s %5s%n", "", "first", "last", "words",
+				"instructions", "data"));
+		for (Routine routine : routineList) {
+			listing.append(String.format("  %-20s %5d %5d %5d %12d %5d%n", routine.name, routine.first, routine.last,
+					routine.words(), routine.instructions, routine.dataWords));
+		}
+		return listing.toString();
+	}
+}
@@ -0,0 +1,245 @@
+package components;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/* The BatchRunner class runs a program without any window: it attaches the machine to scripted peripherals (keyboard
+ * lines and toggles given up front, printer and status output collected as text), loads the ROM and the program,
+ * runs until HALT, a fault or an instruction budget is reached, then writes the printer output and the counters.
+ * Nothing in here touches AWT, so it runs on machines without a display.
+ * Given input sets, it runs the program once per set on a SimulationFarm, using all the cores of the host.
+ *
+ * The program is an image file, assembly source or a file in the text format of Program_1.txt (see ProgramImage).
+ *
+ * Usage: BatchLaunch [options] program
+ *   --pc N              address the program starts at (default the entry PC of an image file or source, 10 for a
+ *                       text file)
+ *   --write-image FILE  write the program to an image file and exit without running it
+ *   --listing FILE      assemble the program, writing the listing and routine sizes to a file
+ *   --card-reader FILE  characters loaded at 159 (as Load Program 2 does), the first line being read by IN from
+ *                       device 2. The file is only read: what OUT writes to device 2 is reported with the counters
+ *   --input TEXT        line typed on the keyboard for the next IN from device 0 (may be repeated)
+ *   --input-file FILE   lines typed on the keyboard, one per IN from device 0
+ *   --input-sets FILE   run once per line of the file, the line holding the keyboard input separated by spaces
+ *   --threads N         machines running at once for input sets (default the number of cores)
+ *   --toggles BITS      value of the toggles read by IN from device 3
+ *   --max-instructions N  instruction budget of each run (default 10000000)
+ *   --printer FILE      write the printer output to a file instead of standard output
+ *   --stats FILE        write the counters to a file instead of standard output
+ *   --quiet             do not echo status messages to standard error
+ *
+ * The exit code is 0 when the program reached HALT, 1 on a fault, 2 when the budget ran out, 3 when a device error
+ * halted it and 64 on a usage error (the highest of them over all the runs of input sets).
+ */
+public class BatchRunner {
+
+	public static final int HALTED = SimulationFarm.HALTED;
+	public static final int FAULTED = SimulationFarm.FAULTED;
+	public static final int BUDGET_EXHAUSTED = SimulationFarm.BUDGET_EXHAUSTED;
+	public static final int DEVICE_ERROR = SimulationFarm.DEVICE_ERROR;
+	public static final int USAGE_ERROR = SimulationFarm.LOAD_ERROR;
+
+	public static void main(String[] args) {
+		System.exit(run(args));
+	}
+
+	// Function running the job(s) described by the command line arguments, returns the exit code
+	public static int run(String[] args) {
+		List<String> keyboard = new ArrayList<>();
+		List<List<String>> inputSets = null;
+		String toggles = "0000000000000000";
+		String programFileName = null;
+		String cardReaderFileName = null;
+		String printerFileName = null;
+		String statsFileName = null;
+		String imageFileName = null;
+		String listingFileName = null;
+		int startingPC = 10;
+		boolean startingPCGiven = false;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long maxInstructions = 10_000_000L;
+		boolean quiet = false;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--pc":
+					startingPC = Integer.parseInt(args[++i]);
+					startingPCGiven = true;
+					break;
+				case "--write-image":
+					imageFileName = args[++i];
+					break;
+				case "--listing":
+					listingFileName = args[++i];
+					break;
+				case "--card-reader":
+					cardReaderFileName = args[++i];
+					break;
+				case "--input":
+					keyboard.add(args[++i]);
+					break;
+				case "--input-file":
+					keyboard.addAll(Files.readAllLines(Paths.get(args[++i]), StandardCharsets.UTF_8));
+					break;
+				case "--input-sets":
+					inputSets = new ArrayList<>();
+					for (String line : Files.readAllLines(Paths.get(args[++i]), StandardCharsets.UTF_8)) {
+						if (!line.trim().isEmpty()) {
+							inputSets.add(Arrays.asList(line.trim().split("\\s+")));
+						}
+					}
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--toggles":
+					toggles = Word.toBinaryString(Word.parse(args[++i]));
+					break;
+				case "--max-instructions":
+					maxInstructions = Long.parseLong(args[++i]);
+					break;
+				case "--printer":
+					printerFileName = args[++i];
+					break;
+				case "--stats":
+					statsFileName = args[++i];
+					break;
+				case "--quiet":
+					quiet = true;
+					break;
+				default:
+					if (args[i].startsWith("--") || programFileName != null) {
+						System.err.println("Unexpected argument: " + args[i]);
+						return USAGE_ERROR;
+					}
+					programFileName = args[i];
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			System.err.println("Bad or missing option value: " + e.getMessage());
+			return USAGE_ERROR;
+		} catch (IOException e) {
+			System.err.println("Can't read keyboard input: " + e.getMessage());
+			return USAGE_ERROR;
+		}
+		if (programFileName == null) {
+			System.err.println("Usage: BatchLaunch [options] program");
+			return USAGE_ERROR;
+		}
+
+		// A bad cache shape is reported once here rather than by every run
+		try {
+			CacheHierarchy.fromProperties(System.getProperties());
+		} catch (IllegalArgumentException e) {
+			System.err.println("Bad cache configuration: " + e.getMessage());
+			return USAGE_ERROR;
+		}
+
+		// The program and card reader are read once, every run sharing them
+		ProgramImage image;
+		List<String> cardReader = null;
+		try {
+			if (listingFileName != null) {
+				Assembler assembler = Assembler.assembleFile(programFileName);
+				Files.write(Paths.get(listingFileName), assembler.listing().getBytes(StandardCharsets.UTF_8));
+				image = assembler.image;
+			} else {
+				image = ProgramImage.read(programFileName, startingPC);
+			}
+			if (startingPCGiven) {
+				image = image.withEntryPC(startingPC);
+			}
+			if (cardReaderFileName != null) {
+				cardReader = Files.readAllLines(Paths.get(cardReaderFileName), StandardCharsets.UTF_8);
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("Can't load program: " + e.getMessage());
+			return USAGE_ERROR;
+		}
+
+		if (imageFileName != null) {
+			try {
+				image.writeImageFile(imageFileName);
+			} catch (IOException e) {
+				System.err.println("Can't write image: " + e.getMessage());
+				return USAGE_ERROR;
+			}
+			return HALTED;
+		}
+
+		String printer;
+		String statistics;
+		int exitCode;
+		if (inputSets == null) {
+			SimulationFarm.Job job = new SimulationFarm.Job(programFileName, image, keyboard, toggles, cardReader,
+					maxInstructions);
+			SimulationFarm.Result result = SimulationFarm.run(job, System.getProperties(), quiet);
+			printer = result.printer;
+			statistics = result.outcome + "\n"
+					+ (result.cardReader == null ? "" : "Card reader written: " + result.cardReader + "\n")
+					+ result.statistics;
+			exitCode = result.exitCode;
+		} else {
+			List<SimulationFarm.Job> jobs = new ArrayList<>();
+			for (int i = 0; i < inputSets.size(); i++) {
+				jobs.add(new SimulationFarm.Job("Input set " + (i + 1), image, inputSets.get(i), toggles, cardReader,
+						maxInstructions));
+			}
+
+			List<SimulationFarm.Result> results;
+			long started = System.nanoTime();
+			try (SimulationFarm farm = new SimulationFarm(threads, System.getProperties())) {
+				results = farm.runAll(jobs);
+			} catch (InterruptedException e) {
+				System.err.println("Interrupted");
+				return USAGE_ERROR;
+			}
+			long elapsed = System.nanoTime() - started;
+
+			StringBuilder printed = new StringBuilder();
+			StringBuilder report = new StringBuilder();
+			long instructions = 0;
+			exitCode = HALTED;
+			for (SimulationFarm.Result result : results) {
+				printed.append("== ").append(result.name).append("\n").append(result.printer);
+				report.append(result.name).append(": ").append(result.outcome).append(", ")
+						.append(result.counters.instructionsRetired).append(" instructions");
+				if (result.cardReader != null) {
+					report.append(", card reader written: ").append(result.cardReader);
+				}
+				report.append("\n");
+				instructions += result.counters.instructionsRetired;
+				exitCode = Math.max(exitCode, result.exitCode);
+			}
+			report.append(String.format("%d runs, %d instructions in %.3f ms on %d threads (%.2f MIPS)%n",
+					results.size(), instructions, elapsed / 1e6, threads, instructions * 1000.0 / elapsed));
+			printer = printed.toString();
+			statistics = report.toString();
+		}
+
+		try {
+			write(printerFileName, printer);
+			write(statsFileName, statistics);
+		} catch (IOException e) {
+			System.err.println("Can't write output: " + e.getMessage());
+			return USAGE_ERROR;
+		}
+		return exitCode;
+	}
+
+	// Function writing text to the given file, or to standard output when there is none
+	private static void write(String fileName, String text) throws IOException {
+		if (fileName == null) {
+			System.out.print(text);
+			System.out.flush();
+		} else {
+			Files.write(Paths.get(fileName), text.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package components;
+
+import java.util.Arrays;
+
+/* Bimodal prediction: a table of 2 bit saturating counters indexed by the low bits of the branch address. Counters 0
+ * and 1 predict not taken, 2 and 3 taken, so a loop branch is only mispredicted once when the loop exits.
+ */
+public class BimodalBranchPredictor implements BranchPredictor {
+
+	private final byte[] counters;
+	private final int mask;
+
+	public BimodalBranchPredictor(int entries) {
+		if (Integer.bitCount(entries) != 1) {
+			throw new IllegalArgumentException("Number of predictor entries must be a power of two: " + entries);
+		}
+		this.counters = new byte[entries];
+		this.mask = entries - 1;
+		// Start weakly not taken
+		Arrays.fill(counters, (byte) 1);
+	}
+
+	public boolean predict(int pc) {
+		return counters[pc & mask] >= 2;
+	}
+
+	public void update(int pc, boolean taken) {
+		int entry = pc & mask;
+		if (taken && counters[entry] < 3) {
+			counters[entry]++;
+		} else if (!taken && counters[entry] > 0) {
+			counters[entry]--;
+		}
+	}
+}
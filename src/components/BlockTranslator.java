@@ -0,0 +1,258 @@
+package components;
+
+/* The BlockTranslator class turns the basic blocks of a program into TranslatedBlocks. A block starts at the PC it is
+ * asked for and ends at the first branch (JZ, JNE, JCC, JMA, JSR, RFS, SOB, JGE), TRAP or HALT, or after
+ * MAX_BLOCK_LENGTH instructions. Only instructions the interpreter already fetched and decoded are translated, so a
+ * block is only built once its code ran a first time. The instructions of a block are still fetched one by one
+ * through the instruction cache, which sees the same fetches either way.
+ * The machine only asks for a block once its start address is hot (see Machine.translationThreshold). A block
+ * dropped because its code was written needs twice as many more executions to be translated again each time, so
+ * code rewriting itself in a loop ends up left to the interpreter instead of being translated over and over.
+ * The instructions used the most in loops get a step of their own with the fields of the instruction folded in (for
+ * direct addressing only), every other one is run through the CPU instruction table as the interpreter does.
+ */
+final class BlockTranslator {
+
+	static final int MAX_BLOCK_LENGTH = 64; // Longest block translated, a longer run of code is split in several
+
+	private final Machine machine;
+	private final CPU cpu;
+	private final Memory memory;
+	private final CacheHierarchy caches;
+
+	private final long[] translateAt; // Executions of each address before translating again, 0 until rewritten
+	private final int[] rewrites; // Blocks dropped at each address because their code was written
+
+	BlockTranslator(Machine machine) {
+		this.machine = machine;
+		this.cpu = machine.cpu;
+		this.memory = machine.memory;
+		this.caches = machine.caches;
+		this.translateAt = new long[memory.SIZE];
+		this.rewrites = new int[memory.SIZE];
+	}
+
+	// Function translating the block starting at the given address when it was executed often enough, see translate
+	TranslatedBlock translateIfHot(int start, long executions) {
+		if (start < 0 || start >= translateAt.length || executions < machine.translationThreshold
+				|| executions < translateAt[start]) {
+			return null;
+		}
+		return translate(start);
+	}
+
+	// Function called when a block is dropped because one of its words was written
+	void blockRewritten(int start) {
+		int backoff = Math.min(++rewrites[start], 30);
+		translateAt[start] = machine.counters.executionsAt[start] + (Math.max(1, machine.translationThreshold) << backoff);
+	}
+
+	// Function translating the block starting at the given address and keeping it in the decoded instruction cache.
+	// Returns null when part of the block was not decoded yet, the interpreter having to run it first
+	TranslatedBlock translate(int start) {
+		DecodedInstructionCache decodedInstructions = memory.decodedInstructions;
+
+		int length = 0;
+		while (length < MAX_BLOCK_LENGTH) {
+			DecodedInstruction instruction = decodedInstructions.get(start + length);
+			if (instruction == null) {
+				return null;
+			}
+			length++;
+			if (endsBlock(instruction.opcode)) {
+				break;
+			}
+		}
+
+		DecodedInstruction[] instructions = new DecodedInstruction[length];
+		TranslatedBlock.Step[] steps = new TranslatedBlock.Step[length];
+		for (int i = 0; i < length; i++) {
+			instructions[i] = decodedInstructions.get(start + i);
+			steps[i] = translate(instructions[i]);
+		}
+
+		TranslatedBlock block = new TranslatedBlock(start, instructions, steps, machine, this);
+		decodedInstructions.putBlock(block);
+		machine.counters.blocksTranslated++;
+		return block;
+	}
+
+	// Function telling whether the instruction with the given opcode is the last of its block
+	static boolean endsBlock(int opcode) {
+		return opcode == 0b000000 // HALT
+				|| (opcode >= 0b001000 && opcode <= 0b001111) // JZ, JNE, JCC, JMA, JSR, RFS, SOB, JGE
+				|| opcode == 0b011110; // TRAP
+	}
+
+	// Helper function computing a direct effective address, IX 0 meaning no indexing
+	private static int effectiveAddress(int[] X, int IX, int address) {
+		return IX == 0 ? address : address + X[IX];
+	}
+
+	// Function translating one instruction, the step doing what the handler of the CPU does for it
+	private TranslatedBlock.Step translate(DecodedInstruction instruction) {
+		CPU cpu = this.cpu;
+		Memory memory = this.memory;
+		CacheHierarchy caches = this.caches;
+		int[] R = cpu.R;
+		int[] X = cpu.X;
+		int GPR = instruction.GPR;
+		int IX = instruction.IX;
+		int address = instruction.address;
+		boolean direct = instruction.I == 0;
+
+		switch (instruction.opcode) {
+		case 0b000001: // LDR
+			if (direct) {
+				return () -> {
+					int EA = effectiveAddress(X, IX, address);
+					cpu.MAR = EA;
+					cpu.MBR = caches.read(EA, memory);
+					R[GPR] = cpu.MBR;
+				};
+			}
+			break;
+		case 0b000010: // STR
+			if (direct) {
+				return () -> {
+					int EA = effectiveAddress(X, IX, address);
+					cpu.MAR = EA;
+					cpu.MBR = R[GPR];
+					caches.write(EA, cpu.MBR, memory);
+				};
+			}
+			break;
+		case 0b000011: // LDA
+			return () -> R[GPR] = address;
+		case 0b000100: // AMR
+			if (direct) {
+				return () -> {
+					int EA = effectiveAddress(X, IX, address);
+					cpu.MAR = EA;
+					cpu.MBR = caches.read(EA, memory);
+					int sum = ALU.add(R[GPR], cpu.MBR);
+					R[GPR] = sum & Word.MASK;
+					cpu.CC |= sum >>> ALU.FLAGS_SHIFT;
+				};
+			}
+			break;
+		case 0b000101: // SMR
+			if (direct) {
+				return () -> {
+					int EA = effectiveAddress(X, IX, address);
+					cpu.MAR = EA;
+					cpu.MBR = caches.read(EA, memory);
+					int difference = ALU.subtract(R[GPR], cpu.MBR);
+					R[GPR] = difference & Word.MASK;
+					cpu.CC |= difference >>> ALU.FLAGS_SHIFT;
+				};
+			}
+			break;
+		case 0b000110: // AIR
+			if (address == 0) {
+				return () -> {
+				};
+			}
+			return () -> {
+				int sum = ALU.add(R[GPR], address);
+				R[GPR] = sum & Word.MASK;
+				cpu.CC |= sum >>> ALU.FLAGS_SHIFT;
+			};
+		case 0b000111: // SIR
+			if (address == 0) {
+				return () -> {
+				};
+			}
+			return () -> {
+				int difference = ALU.subtract(R[GPR], address);
+				R[GPR] = difference & Word.MASK;
+				cpu.CC |= difference >>> ALU.FLAGS_SHIFT;
+			};
+		// The jumps set PC one before their target as the interpreter does, PC being incremented after each step
+		case 0b001000: // JZ
+			if (direct) {
+				return () -> {
+					if (R[GPR] == 0) {
+						cpu.PC = effectiveAddress(X, IX, address) - 1;
+					}
+				};
+			}
+			break;
+		case 0b001001: // JNE
+			if (direct) {
+				return () -> {
+					if (R[GPR] != 0) {
+						cpu.PC = effectiveAddress(X, IX, address) - 1;
+					}
+				};
+			}
+			break;
+		case 0b001011: // JMA
+			if (direct) {
+				return () -> cpu.PC = effectiveAddress(X, IX, address) - 1;
+			}
+			break;
+		case 0b001110: // SOB
+			if (direct) {
+				return () -> {
+					int value = R[GPR] - 1;
+					R[GPR] = value & Word.MASK;
+					if (value > 0) {
+						cpu.PC = effectiveAddress(X, IX, address);
+					}
+				};
+			}
+			break;
+		case 0b001111: // JGE
+			if (direct) {
+				return () -> {
+					if ((short) R[GPR] >= 0) {
+						cpu.PC = effectiveAddress(X, IX, address) - 1;
+					}
+				};
+			}
+			break;
+		case 0b010000: // MLT
+			if ((GPR == 0 || GPR == 2) && (IX == 0 || IX == 2)) {
+				return () -> {
+					int product = ALU.multiply(R[GPR], R[IX]);
+					R[GPR] = product & Word.MASK;
+					R[GPR + 1] = (product >>> 16) & Word.MASK;
+				};
+			}
+			break;
+		case 0b010010: // TRR
+			return () -> {
+				if (R[GPR] == R[IX]) {
+					cpu.CC |= CPU.CC_EQUALORNOT;
+				} else {
+					cpu.CC &= ~CPU.CC_EQUALORNOT;
+				}
+			};
+		case 0b010011: // AND
+			return () -> R[GPR] = R[GPR] & R[IX];
+		case 0b010100: // ORR
+			return () -> R[GPR] = R[GPR] | R[IX];
+		case 0b010101: // NOT
+			return () -> R[GPR] = ~R[GPR] & Word.MASK;
+		case 0b011001: // SRC
+			if (address != 0) {
+				boolean left = (IX & 1) != 0;
+				boolean logical = (IX & 2) != 0;
+				return () -> R[GPR] = ALU.shift(R[GPR], address, left, logical);
+			}
+			break;
+		case 0b011010: // RRC
+			if (address != 0) {
+				boolean left = (IX & 1) != 0;
+				return () -> R[GPR] = ALU.rotate(R[GPR], address, left);
+			}
+			break;
+		default:
+			break;
+		}
+
+		// Any other instruction goes through the instruction table
+		return () -> cpu.executeDecoded(instruction, memory, caches);
+	}
+}
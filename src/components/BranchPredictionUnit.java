@@ -0,0 +1,139 @@
+package components;
+
+import java.util.Properties;
+
+/* The BranchPredictionUnit class is consulted on every branch the machine executes (JZ, JNE, JCC, JMA, JSR, RFS, SOB,
+ * JGE and TRAP). It predicts the branch as it would be when fetched, conditional branches through the BranchPredictor
+ * and every branch predicted taken through the BranchTargetBuffer, then compares with what the branch did. A branch is
+ * mispredicted when fetch went on with the wrong address: a wrong direction, or a taken branch whose target was not
+ * known. The mispredictions are what the pipeline model flushes for, and are counted per branch address.
+ * It is enabled by the branch.predictor property (or by the pipeline one, as static not taken) and shaped by the
+ * branch.predictor.entries, branch.history and branch.btb.entries ones.
+ */
+public class BranchPredictionUnit {
+
+	public final BranchPredictor.Type type;
+	private final BranchPredictor predictor;
+	private final BranchTargetBuffer targets;
+
+	// Counters per branch address
+	private final int[] opcodeAt; // Opcode of the branch last executed at each address
+	public final long[] executed;
+	public final long[] taken;
+	public final long[] directionMispredicted;
+	public final long[] targetMispredicted; // Taken as predicted, but fetch did not know where to
+
+	public long branches;
+	public long mispredictions;
+
+	public BranchPredictionUnit(BranchPredictor.Type type, int entries, int historyBits, int btbEntries,
+			int memorySize) {
+		this.type = type;
+		this.predictor = BranchPredictor.create(type, entries, historyBits);
+		this.targets = new BranchTargetBuffer(btbEntries);
+		this.opcodeAt = new int[memorySize];
+		this.executed = new long[memorySize];
+		this.taken = new long[memorySize];
+		this.directionMispredicted = new long[memorySize];
+		this.targetMispredicted = new long[memorySize];
+	}
+
+	// Function building the unit from the branch.* properties, or returning null when neither branch.predictor nor
+	// pipeline are set
+	public static BranchPredictionUnit fromProperties(Properties properties, int memorySize) {
+		String type = properties.getProperty("branch.predictor");
+		if (type == null) {
+			if (!"true".equalsIgnoreCase(properties.getProperty("pipeline"))) {
+				return null;
+			}
+			type = BranchPredictor.Type.NOT_TAKEN.name();
+		}
+		return new BranchPredictionUnit(BranchPredictor.Type.valueOf(type.toUpperCase()),
+				Integer.parseInt(properties.getProperty("branch.predictor.entries", "256")),
+				Integer.parseInt(properties.getProperty("branch.history", "8")),
+				Integer.parseInt(properties.getProperty("branch.btb.entries", "64")), memorySize);
+	}
+
+	// Function telling whether the instruction with the given opcode is a branch
+	public static boolean isBranch(int opcode) {
+		return opcode != 0b000000 && BlockTranslator.endsBlock(opcode);
+	}
+
+	// Function telling whether the branch with the given opcode is conditional, the others always being taken
+	public static boolean isConditional(int opcode) {
+		switch (opcode) {
+		case 0b001000: // JZ
+		case 0b001001: // JNE
+		case 0b001010: // JCC
+		case 0b001110: // SOB
+		case 0b001111: // JGE
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	// Function called after the branch at pc is executed, nextPC being where the machine goes on. Returns true when
+	// the branch was mispredicted
+	public boolean branchExecuted(int pc, int opcode, int nextPC) {
+		boolean wasTaken = nextPC != pc + 1;
+		boolean conditional = isConditional(opcode);
+
+		// Predict as fetch would have, before learning from the outcome
+		boolean predictedTaken = conditional ? predictor.predict(pc) : type != BranchPredictor.Type.NOT_TAKEN;
+		int predictedTarget = targets.lookup(pc);
+
+		boolean directionWrong = predictedTaken != wasTaken;
+		boolean targetWrong = !directionWrong && wasTaken && predictedTarget != nextPC;
+
+		if (conditional) {
+			predictor.update(pc, wasTaken);
+		}
+		if (wasTaken) {
+			targets.update(pc, nextPC);
+		}
+
+		branches++;
+		if (pc >= 0 && pc < executed.length) {
+			opcodeAt[pc] = opcode;
+			executed[pc]++;
+			if (wasTaken) {
+				taken[pc]++;
+			}
+			if (directionWrong) {
+				directionMispredicted[pc]++;
+			}
+			if (targetWrong) {
+				targetMispredicted[pc]++;
+			}
+		}
+		if (directionWrong || targetWrong) {
+			mispredictions++;
+			return true;
+		}
+		return false;
+	}
+
+	// Function returning the share of branches predicted right, in percent
+	public double getAccuracy() {
+		return branches == 0 ? 0 : 100.0 * (branches - mispredictions) / branches;
+	}
+
+	// Build a plain text report of the predictions, overall and per branch address
+	public String report() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Branch prediction (%s): %d branches, %d mispredicted, accuracy %.1f%%%n", type,
+				branches, mispredictions, getAccuracy()));
+		sb.append(String.format("  %6s %-5s %10s %10s %10s %10s %9s%n", "PC", "", "Executed", "Taken", "Direction",
+				"Target", "Accuracy"));
+		for (int pc = 0; pc < executed.length; pc++) {
+			if (executed[pc] != 0) {
+				long wrong = directionMispredicted[pc] + targetMispredicted[pc];
+				sb.append(String.format("  %6d %-5s %10d %10d %10d %10d %8.1f%%%n", pc, CPU.mnemonic(opcodeAt[pc]), executed[pc],
+						taken[pc], directionMispredicted[pc], targetMispredicted[pc],
+						100.0 * (executed[pc] - wrong) / executed[pc]));
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,33 @@
+package components;
+
+/* The BranchPredictor interface is implemented by the models guessing the direction of conditional branches (JZ, JNE,
+ * JCC, SOB and JGE) when they are fetched, before they are resolved. The BranchPredictionUnit asks the predictor for
+ * each branch fetched, then tells it which way the branch actually went.
+ */
+public interface BranchPredictor {
+
+	// The available predictors, chosen through the branch.predictor property
+	enum Type {
+		NOT_TAKEN, BIMODAL, GSHARE
+	}
+
+	// Returns whether the branch at the given address is predicted taken
+	boolean predict(int pc);
+
+	// Called once the branch at the given address is resolved
+	void update(int pc, boolean taken);
+
+	// Function creating the predictor of the given type with the given number of entries (a power of two) and, for
+	// gshare, bits of global history
+	static BranchPredictor create(Type type, int entries, int historyBits) {
+		switch (type) {
+		case BIMODAL:
+			return new BimodalBranchPredictor(entries);
+		case GSHARE:
+			return new GshareBranchPredictor(entries, historyBits);
+		case NOT_TAKEN:
+		default:
+			return new NotTakenBranchPredictor();
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package components;
+
+import java.util.Arrays;
+
+/* The BranchTargetBuffer class remembers where the taken branches went, so that fetch can be redirected to the target
+ * of a branch predicted taken as soon as the branch is fetched. It is direct mapped: each entry holds the address of
+ * the branch it belongs to and its last target.
+ */
+public class BranchTargetBuffer {
+
+	private final int[] branches; // Address of the branch held in each entry, -1 when empty
+	private final int[] targets;
+	private final int mask;
+
+	public BranchTargetBuffer(int entries) {
+		if (Integer.bitCount(entries) != 1) {
+			throw new IllegalArgumentException("Number of branch target buffer entries must be a power of two: " + entries);
+		}
+		this.branches = new int[entries];
+		this.targets = new int[entries];
+		this.mask = entries - 1;
+		Arrays.fill(branches, -1);
+	}
+
+	// Returns the target last taken by the branch at the given address, or -1 when it is not known
+	public int lookup(int pc) {
+		int entry = pc & mask;
+		return branches[entry] == pc ? targets[entry] : -1;
+	}
+
+	// Called when the branch at the given address is taken
+	public void update(int pc, int target) {
+		int entry = pc & mask;
+		branches[entry] = pc;
+		targets[entry] = target;
+	}
+}
@@ -0,0 +1,613 @@
+package components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/* The Cache class simulates one level of the processor's cache hierarchy (L1 instruction, L1 data or unified L2).
+ * Its shape is given by a CacheConfiguration: number of lines, words per line, associativity (direct mapped up to
+ * fully associative) and replacement policy. Lines are written back to the next level (or to memory for the last level)
+ * when they are replaced.
+ * Tags are kept as ints and looked up through a direct tag to line index, so a hit costs the same whatever the
+ * number of lines. Valid/dirty state is a bitmask per line, a word only being brought in when it is accessed unless
+ * the configuration asks for whole line fills, in which case a miss brings in the rest of the line along with it.
+ * A level can also have a Prefetcher bringing in the lines it expects the program to read next. Each prefetched line
+ * is counted as useful once it is read, and as useless when it is replaced without having been read; a miss on a line
+ * that was replaced to make room for a prefetched one is counted as pollution.
+ * The CacheHierarchy class links the levels together, and is the one the rest of the machine talks to.
+ */
+
+public class Cache {
+	// Returned by the functions handing a word to another level, together with the word, when the word is dirty
+	static final int DIRTY = 1 << 16;
+	// Returned by removeWord when the word is not in the cache
+	static final int ABSENT = -1;
+
+	// Set cache constants
+	public int MAXNUMBEROFLINES = 16;
+	public int WORDSPERLINE = 4;
+	public int ASSOCIATIVITY = 16; // Number of ways (lines) in each set
+	public int NUMBEROFSETS = 1;
+	public int MEMORYSIZE = 2048; // Number of words in memory, used to size the tag index
+
+	public final String name; // Name of the level (ex: "L1D") used when displaying it
+	public final CacheConfiguration configuration;
+	private final ReplacementPolicy replacementPolicy;
+	private final Prefetcher prefetcher; // null when the level does not prefetch
+
+	// Links to the other levels, set up by the CacheHierarchy
+	Cache nextLevel; // Level misses are served from and lines are written back to, null when it is memory
+	boolean exclusive; // When set, blocks move between this level and the next one instead of being copied
+	boolean readOnly; // When set (instruction cache), the level never holds dirty words
+	Cache sibling; // Level at the same height holding newer copies of words (the data cache for the instruction cache)
+	final List<Cache> upperLevels = new ArrayList<Cache>(); // Levels kept inclusive of this one
+	// Address of the instruction being executed, for the prefetchers tracking the accesses of each instruction
+	IntSupplier programCounter = () -> 0;
+
+	// Counters
+	public long hits; // Accesses finding their word in the cache
+	public long misses; // Accesses that had to get their word from the next level
+	public long memoryReads; // Missed words read from memory (a write allocating its line reads nothing)
+	public long writebacks; // Dirty words written to the next level (or memory)
+	public long evictions; // Lines removed to make room for another one
+	public long fills; // Words brought in along with a missed word by whole line fills
+	public long prefetches; // Lines brought in by the prefetcher
+	public long usefulPrefetches; // Prefetched lines read before being replaced
+	public long uselessPrefetches; // Prefetched lines replaced without having been read
+	public long pollution; // Misses on lines that were replaced to make room for a prefetched line
+
+	private final int offsetBits; // Number of address bits used for the offset within a line
+	private final int offsetMask; // Mask extracting the offset from an address
+
+	// Content of the cache lines, line number set * ASSOCIATIVITY + way
+	private final int[] tags; // Tag of each line (the address without its offset bits), -1 when the line is free
+	private final int[] words; // Words of each line, line i holds words[i * WORDSPERLINE] to words[(i + 1) * WORDSPERLINE - 1]
+	private final int[] validMask; // Bit n set when word n of the line holds data
+	private final int[] dirtyMask; // Bit n set when word n of the line was written and not yet written back
+	private final int[] linesInSet; // Number of ways in use in each set
+	private final boolean[] prefetchedLine; // Set for a line brought in by the prefetcher until it is first read
+
+	private final int[] prefetchAddresses; // Lines the prefetcher asked for after the last read
+	private final boolean[] evictedByPrefetch; // Set for a tag whose line was replaced by a prefetched line
+	private boolean prefetching; // Set while a prefetched line is being allocated
+
+	// Index from a tag to the line holding it, -1 when the tag is not in the cache
+	private final int[] lineOfTag;
+
+	// Class constructor for a cache level of the given shape
+	public Cache(String name, CacheConfiguration configuration) {
+		this.name = name;
+		this.configuration = configuration;
+		MAXNUMBEROFLINES = configuration.lines;
+		WORDSPERLINE = configuration.wordsPerLine;
+		ASSOCIATIVITY = configuration.associativity;
+		NUMBEROFSETS = configuration.getNumberOfSets();
+		replacementPolicy = ReplacementPolicy.create(configuration.replacementPolicy, NUMBEROFSETS, ASSOCIATIVITY);
+		prefetcher = Prefetcher.create(configuration.prefetcher, WORDSPERLINE, configuration.prefetchDegree);
+		prefetchAddresses = new int[configuration.prefetchDegree];
+
+		offsetBits = Integer.numberOfTrailingZeros(WORDSPERLINE);
+		offsetMask = WORDSPERLINE - 1;
+
+		tags = new int[MAXNUMBEROFLINES];
+		words = new int[MAXNUMBEROFLINES * WORDSPERLINE];
+		validMask = new int[MAXNUMBEROFLINES];
+		dirtyMask = new int[MAXNUMBEROFLINES];
+		linesInSet = new int[NUMBEROFSETS];
+		prefetchedLine = new boolean[MAXNUMBEROFLINES];
+		lineOfTag = new int[(MEMORYSIZE + offsetMask) >> offsetBits];
+		evictedByPrefetch = new boolean[lineOfTag.length];
+		clearCache();
+	}
+
+	// Function to read a word, either from the cache (when found) or from the next level (when not found in cache),
+	// keeping a copy of it in the cache. Takes the address and memory object as input and returns the word
+	public int read(int address, Memory memory) {
+		int offset = address & offsetMask;
+		int line = lineOfTag[address >>> offsetBits];
+		if (line >= 0 && (validMask[line] & (1 << offset)) != 0) {
+			hits++;
+			replacementPolicy.lineAccessed(line / ASSOCIATIVITY, line % ASSOCIATIVITY);
+			int word = words[line * WORDSPERLINE + offset];
+			boolean firstUse = prefetchUsed(line);
+			if (prefetcher != null) {
+				prefetch(address, false, firstUse, memory);
+			}
+			return word;
+		}
+
+		missed(address);
+		int fetched = fetch(address, memory, true);
+		line = install(address, fetched, memory);
+		prefetchUsed(line);
+		if (configuration.lineFill) {
+			fills += fillLine(address, memory);
+		}
+		if (prefetcher != null) {
+			prefetch(address, true, false, memory);
+		}
+		return fetched & Word.MASK;
+	}
+
+	// Function to write a word to the cache, allocating its line when needed (without reading the line) and setting
+	// the word's dirty bit
+	public void write(int address, int data, Memory memory) {
+		int offset = address & offsetMask;
+		int line = lineOfTag[address >>> offsetBits];
+		if (line >= 0) {
+			hits++;
+			replacementPolicy.lineAccessed(line / ASSOCIATIVITY, line % ASSOCIATIVITY);
+		} else {
+			missed(address);
+			line = allocate(address >>> offsetBits, memory);
+			if (nextLevel != null) {
+				if (exclusive) {
+					// The next level's copy is now stale, so drop it
+					nextLevel.removeWord(address, memory);
+				} else {
+					// Keep the next level inclusive of this one
+					nextLevel.reserve(address, memory);
+				}
+			}
+		}
+		words[line * WORDSPERLINE + offset] = data & Word.MASK;
+		validMask[line] |= 1 << offset;
+		dirtyMask[line] |= 1 << offset;
+
+		// When filling whole lines, a line allocated by the write gets the rest of its words read in
+		if (configuration.lineFill) {
+			fills += fillLine(address, memory);
+		}
+	}
+
+	// Helper function counting a miss, and the pollution when the line was replaced by a prefetched one
+	private void missed(int address) {
+		misses++;
+		int tag = address >>> offsetBits;
+		if (evictedByPrefetch[tag]) {
+			evictedByPrefetch[tag] = false;
+			pollution++;
+		}
+	}
+
+	// Helper function called when a line is read, counting it as a useful prefetch when it was prefetched and not read
+	// yet. Returns whether it was
+	private boolean prefetchUsed(int line) {
+		if (line < 0 || !prefetchedLine[line]) {
+			return false;
+		}
+		prefetchedLine[line] = false;
+		usefulPrefetches++;
+		return true;
+	}
+
+	// Helper function placing a word got from another level in the cache, allocating its line when needed. The word
+	// has the DIRTY bit set when it still has to be written back. Returns the line holding it
+	private int install(int address, int word, Memory memory) {
+		int offset = address & offsetMask;
+		// Look the line up as getting the word from the next level may have removed it
+		int line = lineOfTag[address >>> offsetBits];
+		if (line < 0) {
+			line = allocate(address >>> offsetBits, memory);
+		} else {
+			replacementPolicy.lineAccessed(line / ASSOCIATIVITY, line % ASSOCIATIVITY);
+		}
+		words[line * WORDSPERLINE + offset] = word & Word.MASK;
+		validMask[line] |= 1 << offset;
+		if ((word & DIRTY) != 0) {
+			dirtyMask[line] |= 1 << offset;
+		}
+		return line;
+	}
+
+	// Helper function bringing in the words of the line holding the address that are not in the cache yet, without
+	// counting them as accesses (of this level or the next). Returns the number of words brought in
+	private int fillLine(int address, Memory memory) {
+		int first = address & ~offsetMask;
+		int filled = 0;
+		for (int offset = 0; offset < WORDSPERLINE; offset++) {
+			int wordAddress = first | offset;
+			if (!contains(wordAddress)) {
+				install(wordAddress, fetch(wordAddress, memory, false), memory);
+				filled++;
+			}
+		}
+		return filled;
+	}
+
+	// Helper function asking the prefetcher which lines to bring in after a read, and bringing in the ones that are
+	// not in the cache
+	private void prefetch(int address, boolean miss, boolean firstUse, Memory memory) {
+		int count = prefetcher.accessed(programCounter.getAsInt(), address, miss, firstUse, prefetchAddresses);
+		for (int i = 0; i < count; i++) {
+			int lineAddress = prefetchAddresses[i] & ~offsetMask;
+			if (prefetchAddresses[i] < 0 || (lineAddress >>> offsetBits) >= lineOfTag.length
+					|| lineOfTag[lineAddress >>> offsetBits] >= 0) {
+				continue;
+			}
+			prefetching = true;
+			int line = allocate(lineAddress >>> offsetBits, memory);
+			prefetching = false;
+			prefetchedLine[line] = true;
+			prefetches++;
+			fillLine(lineAddress, memory);
+		}
+	}
+
+	// Function returning whether the word at the given address is in the cache
+	public boolean contains(int address) {
+		int line = lineOfTag[address >>> offsetBits];
+		return line >= 0 && (validMask[line] & (1 << (address & offsetMask))) != 0;
+	}
+
+	// Helper function getting a word on a miss: from the sibling level when it holds a newer copy, otherwise from the
+	// next level (taking it out of the next level when exclusive) or from memory. A word the program did not ask for
+	// (demand false: the rest of a line or a prefetch) is not counted as an access by the next level.
+	// Returns the word, with the DIRTY bit set when it still has to be written back
+	private int fetch(int address, Memory memory, boolean demand) {
+		if (sibling != null && sibling.contains(address)) {
+			return sibling.peek(address);
+		}
+
+		int fetched;
+		if (nextLevel == null) {
+			fetched = memory.read(address);
+			if (demand) {
+				memoryReads++;
+			}
+		} else if (!demand) {
+			fetched = nextLevel.supply(address, memory, exclusive);
+		} else if (exclusive) {
+			fetched = nextLevel.take(address, memory);
+		} else {
+			fetched = nextLevel.read(address, memory);
+		}
+
+		// An instruction cache never holds dirty words, so write the word back before keeping it
+		if (readOnly && (fetched & DIRTY) != 0) {
+			memory.write(address, fetched);
+			writebacks++;
+			fetched &= Word.MASK;
+		}
+		return fetched;
+	}
+
+	// Helper function returning a word known to be in the cache without touching the counters
+	private int peek(int address) {
+		return words[lineOfTag[address >>> offsetBits] * WORDSPERLINE + (address & offsetMask)];
+	}
+
+	// Function used by an exclusive upper level on a miss: the word is removed from this level and returned (with the
+	// DIRTY bit when it was dirty). When the word is not here it is read from the level below without being kept
+	int take(int address, Memory memory) {
+		int line = lineOfTag[address >>> offsetBits];
+		boolean firstUse = contains(address) && prefetchUsed(line);
+		int removed = removeWord(address, memory);
+		boolean miss = removed == ABSENT;
+		if (miss) {
+			missed(address);
+			if (nextLevel == null) {
+				removed = memory.read(address);
+				memoryReads++;
+			} else {
+				removed = exclusive ? nextLevel.take(address, memory) : nextLevel.read(address, memory);
+			}
+		} else {
+			hits++;
+		}
+		if (prefetcher != null) {
+			prefetch(address, miss, firstUse, memory);
+		}
+		return removed;
+	}
+
+	// Function used by an upper level for the words it brings in without the program asking for them (see fetch): the
+	// word is read as by read, or taken as by take when remove is set, without counting an access or prefetching
+	int supply(int address, Memory memory, boolean remove) {
+		if (remove) {
+			int removed = removeWord(address, memory);
+			return removed != ABSENT ? removed : fetch(address, memory, false);
+		}
+		if (contains(address)) {
+			return peek(address);
+		}
+		int fetched = fetch(address, memory, false);
+		install(address, fetched, memory);
+		return fetched & Word.MASK;
+	}
+
+	// Function used by an inclusive upper level when it allocates a line on a write, so that this level holds the line
+	// too (the word itself stays invalid here, the upper level holding the newer value)
+	void reserve(int address, Memory memory) {
+		int line = lineOfTag[address >>> offsetBits];
+		if (line >= 0) {
+			hits++;
+			replacementPolicy.lineAccessed(line / ASSOCIATIVITY, line % ASSOCIATIVITY);
+			return;
+		}
+		misses++;
+		allocate(address >>> offsetBits, memory);
+		if (nextLevel != null && !exclusive) {
+			nextLevel.reserve(address, memory);
+		}
+	}
+
+	// Function used by an upper level to hand over a word it is replacing (all its words when exclusive, only the dirty
+	// ones otherwise). The word is kept here with its dirty state
+	void receive(int address, int value, boolean dirty, Memory memory) {
+		install(address, (value & Word.MASK) | (dirty ? DIRTY : 0), memory);
+	}
+
+	// Function removing a word from the cache, returning it (with the DIRTY bit when dirty) or ABSENT when the word
+	// is not here. The line is freed once it holds no more words
+	int removeWord(int address, Memory memory) {
+		int offset = address & offsetMask;
+		int tag = address >>> offsetBits;
+		int line = lineOfTag[tag];
+		if (line < 0 || (validMask[line] & (1 << offset)) == 0) {
+			return ABSENT;
+		}
+		int removed = words[line * WORDSPERLINE + offset];
+		if ((dirtyMask[line] & (1 << offset)) != 0) {
+			removed |= DIRTY;
+		}
+		validMask[line] &= ~(1 << offset);
+		dirtyMask[line] &= ~(1 << offset);
+		if (validMask[line] == 0) {
+			freeLine(line);
+		}
+		return removed;
+	}
+
+	// Helper function allocating a line for the tag in its set. When the set is full the replacement policy chooses the
+	// line to replace, and that line is evicted first
+	private int allocate(int tag, Memory memory) {
+		int set = tag % NUMBEROFSETS;
+		int first = set * ASSOCIATIVITY;
+		int way = 0;
+		if (linesInSet[set] < ASSOCIATIVITY) {
+			while (tags[first + way] >= 0) {
+				way++;
+			}
+		} else {
+			way = replacementPolicy.victim(set);
+			evictLine(first + way, memory);
+		}
+
+		int line = first + way;
+		tags[line] = tag;
+		evictedByPrefetch[tag] = false;
+		validMask[line] = 0;
+		dirtyMask[line] = 0;
+		lineOfTag[tag] = line;
+		linesInSet[set]++;
+		replacementPolicy.lineFilled(set, way);
+		return line;
+	}
+
+	// Helper function to remove a line from the cache. Levels kept inclusive of this one give up their copies of the
+	// line's words first (their dirty words being newer), then each word is handed to the next level: every word when
+	// exclusive, only the dirty ones otherwise (committed to memory for the last level)
+	private void evictLine(int line, Memory memory) {
+		int tag = tags[line];
+		int valid = validMask[line];
+		int dirty = dirtyMask[line];
+		evictions++;
+		if (prefetchedLine[line]) {
+			uselessPrefetches++;
+		}
+		if (prefetching) {
+			evictedByPrefetch[tag] = true;
+		}
+
+		for (Cache upperLevel : upperLevels) {
+			for (int offset = 0; offset < WORDSPERLINE; offset++) {
+				int removed = upperLevel.removeWord((tag << offsetBits) | offset, memory);
+				if (removed != ABSENT && (removed & DIRTY) != 0) {
+					words[line * WORDSPERLINE + offset] = removed & Word.MASK;
+					valid |= 1 << offset;
+					dirty |= 1 << offset;
+				}
+			}
+		}
+
+		// Free the line before handing its words down, as the next level may in turn evict lines
+		freeLine(line);
+
+		for (int offset = 0; offset < WORDSPERLINE; offset++) {
+			if ((valid & (1 << offset)) == 0) {
+				continue;
+			}
+			boolean isDirty = (dirty & (1 << offset)) != 0;
+			int value = words[line * WORDSPERLINE + offset];
+			if (nextLevel == null) {
+				if (isDirty) {
+					commitToMemory(tag, offset, value, memory);
+					writebacks++;
+				}
+			} else if (exclusive || isDirty) {
+				nextLevel.receive((tag << offsetBits) | offset, value, isDirty, memory);
+				if (isDirty) {
+					writebacks++;
+				}
+			}
+		}
+	}
+
+	// Helper function marking a line as free
+	private void freeLine(int line) {
+		lineOfTag[tags[line]] = -1;
+		tags[line] = -1;
+		validMask[line] = 0;
+		dirtyMask[line] = 0;
+		prefetchedLine[line] = false;
+		linesInSet[line / ASSOCIATIVITY]--;
+	}
+
+	// Helper function to commit the old content of the word into memory
+	public void commitToMemory(int tag, int offset_from_address, int wordToCommit, Memory memory) {
+		// Generate the memory address to write to by merging tag and offset
+		int targetAddress = (tag << offsetBits) | offset_from_address;
+
+		// Write to memory
+		memory.write(targetAddress, wordToCommit);
+	}
+
+	// Function writing the dirty words of the addresses from start (included) to end (excluded) to memory, the words
+	// staying in the cache as clean copies
+	public void flushRange(int start, int end, Memory memory) {
+		int firstTag = start >>> offsetBits;
+		int lastTag = (end - 1) >>> offsetBits;
+		for (int i = 0; i < linesToVisit(firstTag, lastTag); i++) {
+			int line = lineInRange(i, firstTag, lastTag);
+			if (line < 0) {
+				continue;
+			}
+			int tag = tags[line];
+			int flushed = dirtyMask[line] & rangeMask(tag, start, end);
+			for (int offset = 0; offset < WORDSPERLINE; offset++) {
+				if ((flushed & (1 << offset)) != 0) {
+					commitToMemory(tag, offset, words[line * WORDSPERLINE + offset], memory);
+					writebacks++;
+				}
+			}
+			dirtyMask[line] &= ~flushed;
+		}
+	}
+
+	// Function dropping the words of the addresses from start (included) to end (excluded) without writing them back,
+	// used once memory holds newer values for them. A line is freed when the words dropped were the last ones it held,
+	// unless levels are kept inclusive of this one: a line may be there only for the words they hold (see reserve)
+	public void invalidateRange(int start, int end) {
+		int firstTag = start >>> offsetBits;
+		int lastTag = (end - 1) >>> offsetBits;
+		for (int i = 0; i < linesToVisit(firstTag, lastTag); i++) {
+			int line = lineInRange(i, firstTag, lastTag);
+			if (line < 0) {
+				continue;
+			}
+			int dropped = rangeMask(tags[line], start, end) & validMask[line];
+			if (dropped == 0) {
+				continue;
+			}
+			validMask[line] &= ~dropped;
+			dirtyMask[line] &= ~dropped;
+			if (validMask[line] == 0 && upperLevels.isEmpty()) {
+				freeLine(line);
+			}
+		}
+	}
+
+	// Function replacing the words of the addresses from start (included) to end (excluded) held by the cache with the
+	// values memory holds, once memory was written directly
+	public void refreshRange(int start, int end, Memory memory) {
+		int firstTag = start >>> offsetBits;
+		int lastTag = (end - 1) >>> offsetBits;
+		for (int i = 0; i < linesToVisit(firstTag, lastTag); i++) {
+			int line = lineInRange(i, firstTag, lastTag);
+			if (line < 0) {
+				continue;
+			}
+			int tag = tags[line];
+			int refreshed = validMask[line] & rangeMask(tag, start, end);
+			for (int offset = 0; offset < WORDSPERLINE; offset++) {
+				if ((refreshed & (1 << offset)) != 0) {
+					words[line * WORDSPERLINE + offset] = memory.read((tag << offsetBits) | offset) & Word.MASK;
+				}
+			}
+		}
+	}
+
+	// Helper functions going through the lines holding the tags from firstTag to lastTag: the tags are looked up one by
+	// one, unless there are more of them than lines in the cache in which case every line is checked instead.
+	// lineInRange returns the i-th line to visit, or -1 when it holds none of the tags
+	private int linesToVisit(int firstTag, int lastTag) {
+		return Math.min(lastTag - firstTag + 1, MAXNUMBEROFLINES);
+	}
+
+	private int lineInRange(int i, int firstTag, int lastTag) {
+		if (lastTag - firstTag + 1 > MAXNUMBEROFLINES) {
+			return tags[i] >= firstTag && tags[i] <= lastTag ? i : -1;
+		}
+		return lineOfTag[firstTag + i];
+	}
+
+	// Helper function returning the bits of the words of the line with the given tag that are from start to end
+	private int rangeMask(int tag, int start, int end) {
+		int first = Math.max(start - (tag << offsetBits), 0);
+		int last = Math.min(end - (tag << offsetBits), WORDSPERLINE);
+		return (int) ((1L << last) - 1) & ~((1 << first) - 1);
+	}
+
+	// Function returning whether the given line currently holds a block
+	public boolean isLineInUse(int linenumber) {
+		return tags[linenumber] >= 0;
+	}
+
+	// Function returning the percentage of accesses that hit (0 when there were no accesses)
+	public double getHitRate() {
+		long accesses = hits + misses;
+		return accesses == 0 ? 0 : 100.0 * hits / accesses;
+	}
+
+	// Function returning the percentage of the prefetched lines that were read (0 when none was read or replaced yet)
+	public double getPrefetchAccuracy() {
+		long settled = usefulPrefetches + uselessPrefetches;
+		return settled == 0 ? 0 : 100.0 * usefulPrefetches / settled;
+	}
+
+	// Function returning the percentage of the misses the prefetcher avoided, counting the reads of prefetched lines as
+	// the misses they would have been (0 when there were neither)
+	public double getPrefetchCoverage() {
+		long wouldMiss = usefulPrefetches + misses;
+		return wouldMiss == 0 ? 0 : 100.0 * usefulPrefetches / wouldMiss;
+	}
+
+	// Function returning a line describing the whole line fills and prefetches of the level, empty when it does neither
+	public String describeFills() {
+		StringBuilder sb = new StringBuilder();
+		if (configuration.lineFill) {
+			sb.append(String.format("%s: %d words filled along with a miss%n", name, fills));
+		}
+		if (prefetcher != null) {
+			sb.append(String.format(
+					"%s: %s prefetches %d, useful %d, useless %d, pollution %d, accuracy %.1f%%, coverage %.1f%%%n",
+					name, configuration.prefetcher, prefetches, usefulPrefetches, uselessPrefetches, pollution,
+					getPrefetchAccuracy(), getPrefetchCoverage()));
+		}
+		return sb.toString();
+	}
+
+	// Helper function used to return a string of all the words in a given cache line number (to display in the cache output printer).
+	// Each word is prefixed with its dirty bit, and words holding no data are shown as x's
+	public String getWordsFromLine(int linenumber) {
+		int tagBits = Integer.numberOfTrailingZeros(Integer.highestOneBit(MEMORYSIZE)) - offsetBits;
+		StringBuilder sb = new StringBuilder(Word.toBinaryString(tags[linenumber], tagBits));
+		for (int offset = 0; offset < WORDSPERLINE; offset++) {
+			sb.append('\t');
+			if ((validMask[linenumber] & (1 << offset)) == 0) {
+				sb.append("xxxxxxxxxxxxxxxxx");
+			} else {
+				sb.append((dirtyMask[linenumber] & (1 << offset)) != 0 ? '1' : '0');
+				sb.append(Word.toBinaryString(words[linenumber * WORDSPERLINE + offset]));
+			}
+		}
+		return sb.toString();
+	}
+
+	// Function to clear the cache (used by the IPL button)
+	public void clearCache() {
+		Arrays.fill(lineOfTag, -1);
+		Arrays.fill(tags, -1);
+		Arrays.fill(validMask, 0);
+		Arrays.fill(dirtyMask, 0);
+		Arrays.fill(linesInSet, 0);
+		Arrays.fill(prefetchedLine, false);
+		Arrays.fill(evictedByPrefetch, false);
+		replacementPolicy.reset();
+		if (prefetcher != null) {
+			prefetcher.reset();
+		}
+	}
+}
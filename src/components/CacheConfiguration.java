@@ -0,0 +1,102 @@
+package components;
+
+import java.util.Properties;
+
+/* The CacheConfiguration class describes the shape of a cache: its number of lines, words per line, associativity
+ * (1 for direct mapped up to the number of lines for fully associative) and replacement policy, along with how it
+ * brings words in: only the word missed or the whole line, and which prefetcher (if any) runs ahead of the program.
+ * It is given to the cache when the machine is built.
+ */
+public final class CacheConfiguration {
+
+	// The cache the simulator was designed with: fully associative, 16 lines of 4 words, FIFO
+	public static final CacheConfiguration DEFAULT = new CacheConfiguration(16, 4, 16, ReplacementPolicy.Type.FIFO);
+
+	// Longest line, the words of a line being tracked in the bits of an int (see the valid and dirty masks of Cache)
+	public static final int MAX_WORDS_PER_LINE = Integer.SIZE;
+
+	public final int lines; // Total number of lines
+	public final int wordsPerLine; // Words per line, a power of two up to MAX_WORDS_PER_LINE
+	public final int associativity; // Number of ways in each set
+	public final ReplacementPolicy.Type replacementPolicy;
+	public final boolean lineFill; // Whether a miss brings in the whole line rather than the word missed only
+	public final Prefetcher.Type prefetcher;
+	public final int prefetchDegree; // Lines (or strides) the prefetcher runs ahead
+
+	// Class constructor for a cache filling the words missed only, without prefetching
+	public CacheConfiguration(int lines, int wordsPerLine, int associativity, ReplacementPolicy.Type replacementPolicy) {
+		this(lines, wordsPerLine, associativity, replacementPolicy, false, Prefetcher.Type.NONE, 1);
+	}
+
+	public CacheConfiguration(int lines, int wordsPerLine, int associativity, ReplacementPolicy.Type replacementPolicy,
+			boolean lineFill, Prefetcher.Type prefetcher, int prefetchDegree) {
+		if (lines < 1 || associativity < 1 || lines % associativity != 0) {
+			throw new IllegalArgumentException(
+					"Number of lines (" + lines + ") must be a multiple of the associativity (" + associativity + ")");
+		}
+		if (Integer.bitCount(wordsPerLine) != 1 || wordsPerLine > MAX_WORDS_PER_LINE) {
+			throw new IllegalArgumentException(
+					"Words per line must be a power of two up to " + MAX_WORDS_PER_LINE + ": " + wordsPerLine);
+		}
+		if (prefetchDegree < 1) {
+			throw new IllegalArgumentException("Prefetch degree must be at least 1: " + prefetchDegree);
+		}
+		this.lines = lines;
+		this.wordsPerLine = wordsPerLine;
+		this.associativity = associativity;
+		this.replacementPolicy = replacementPolicy;
+		this.lineFill = lineFill;
+		this.prefetcher = prefetcher;
+		this.prefetchDegree = prefetchDegree;
+	}
+
+	// Function returning the number of sets (lines divided by associativity)
+	public int getNumberOfSets() {
+		return lines / associativity;
+	}
+
+	// Function building a configuration from properties named prefix.lines, prefix.wordsPerLine,
+	// prefix.associativity, prefix.policy, prefix.fill (WORD or LINE), prefix.prefetcher (NONE, NEXT_LINE, STRIDE or
+	// STREAM) and prefix.prefetch.degree, using the defaults for the ones that are not set
+	public static CacheConfiguration fromProperties(Properties properties, String prefix, CacheConfiguration defaults) {
+		int lines = Integer.parseInt(properties.getProperty(prefix + ".lines", String.valueOf(defaults.lines)));
+		int wordsPerLine = Integer
+				.parseInt(properties.getProperty(prefix + ".wordsPerLine", String.valueOf(defaults.wordsPerLine)));
+		// A fully associative default stays fully associative when only the number of lines is changed
+		int defaultAssociativity = defaults.associativity == defaults.lines ? lines : defaults.associativity;
+		int associativity = Integer
+				.parseInt(properties.getProperty(prefix + ".associativity", String.valueOf(defaultAssociativity)));
+		ReplacementPolicy.Type policy = ReplacementPolicy.Type
+				.valueOf(properties.getProperty(prefix + ".policy", defaults.replacementPolicy.name()).toUpperCase());
+		String fill = properties.getProperty(prefix + ".fill", defaults.lineFill ? "LINE" : "WORD").toUpperCase();
+		if (!fill.equals("LINE") && !fill.equals("WORD")) {
+			throw new IllegalArgumentException("Cache fill must be WORD or LINE: " + fill);
+		}
+		Prefetcher.Type prefetcher = Prefetcher.Type
+				.valueOf(properties.getProperty(prefix + ".prefetcher", defaults.prefetcher.name()).toUpperCase());
+		int prefetchDegree = Integer.parseInt(
+				properties.getProperty(prefix + ".prefetch.degree", String.valueOf(defaults.prefetchDegree)));
+		return new CacheConfiguration(lines, wordsPerLine, associativity, policy, fill.equals("LINE"), prefetcher,
+				prefetchDegree);
+	}
+
+	@Override
+	public String toString() {
+		String shape;
+		if (associativity == 1) {
+			shape = "direct mapped";
+		} else if (associativity == lines) {
+			shape = "fully associative";
+		} else {
+			shape = associativity + "-way";
+		}
+		String description = lines + " lines x " + wordsPerLine + " words, " + shape + ", " + replacementPolicy;
+		if (lineFill) {
+			description += ", line fill";
+		}
+		if (prefetcher != Prefetcher.Type.NONE) {
+			description += ", " + prefetcher + " prefetch x" + prefetchDegree;
+		}
+		return description;
+	}
+}
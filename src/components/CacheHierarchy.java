@@ -0,0 +1,217 @@
+package components;
+
+import java.util.Properties;
+import java.util.function.IntSupplier;
+
+/* The CacheHierarchy class puts the processor's caches together: a level 1 instruction cache used to fetch
+ * instructions, a level 1 data cache used by the instructions' memory accesses, and an optional unified level 2 cache
+ * both of them miss into, before memory. The level 2 cache is either inclusive (it holds a copy of everything in the
+ * level 1 caches) or exclusive (blocks move up to level 1 on a hit and back down when level 1 replaces them).
+ * Interaction with the caches is through the readInstruction, read and write functions.
+ */
+public class CacheHierarchy {
+
+	// How the level 2 cache relates to the level 1 caches
+	public enum Inclusion {
+		INCLUSIVE, EXCLUSIVE
+	}
+
+	// Default shape of the level 2 cache: 64 lines of 4 words, 4-way set associative, LRU
+	public static final CacheConfiguration DEFAULT_L2 = new CacheConfiguration(64, 4, 4, ReplacementPolicy.Type.LRU);
+
+	public int MEMORYSIZE = 2048; // Number of words in memory
+
+	public final Cache l1i; // Level 1 instruction cache
+	public final Cache l1d; // Level 1 data cache
+	public final Cache l2; // Unified level 2 cache, null when there is none
+	public final Inclusion inclusion;
+	// Accesses going into the caches are appended to it when set, null when not recording
+	public AddressTrace trace;
+	// Machine the faults are reported to
+	public FaultHandler faultHandler = FaultHandler.IGNORE;
+
+	// Class constructor, l2 may be null for a machine with level 1 caches only
+	public CacheHierarchy(CacheConfiguration l1i, CacheConfiguration l1d, CacheConfiguration l2, Inclusion inclusion) {
+		this.l1i = new Cache("L1I", l1i);
+		this.l1d = new Cache("L1D", l1d);
+		this.l2 = l2 == null ? null : new Cache("L2", l2);
+		this.inclusion = inclusion;
+
+		// Instructions never get written through the instruction cache, and a word written by the program is newer
+		// in the data cache than anywhere else so instruction fetches look there first
+		this.l1i.readOnly = true;
+		this.l1i.sibling = this.l1d;
+
+		if (this.l2 != null) {
+			boolean exclusive = inclusion == Inclusion.EXCLUSIVE;
+			this.l1i.nextLevel = this.l2;
+			this.l1d.nextLevel = this.l2;
+			this.l1i.exclusive = exclusive;
+			this.l1d.exclusive = exclusive;
+			if (!exclusive) {
+				this.l2.upperLevels.add(this.l1i);
+				this.l2.upperLevels.add(this.l1d);
+			}
+		}
+	}
+
+	// Function to fetch the instruction word at the given address through the instruction cache, called for every
+	// fetch (see Machine.fetch and TranslatedBlock) so that the trace and the caches see all of them
+	public int readInstruction(int address, Memory memory) {
+		// Check if address is greater than maximum memory size, and if so, go to fault routine
+		if (address >= MEMORYSIZE ) {
+			faultHandler.faultOccured(3);
+			return 0;
+		}
+
+		// Check if address is the first 6 reserved addresses and if return directly from memory
+		if (address < 6 ) {
+			return memory.read(address);
+		}
+
+		if (trace != null) {
+			trace.record(AddressTrace.INSTRUCTION, address);
+		}
+		return l1i.read(address, memory);
+	}
+
+	// Function to read a data word at the given address through the data cache
+	public int read(int address, Memory memory) {
+		// Check if address is greater than maximum memory size, and if so, go to fault routine
+		if (address >= MEMORYSIZE ) {
+			faultHandler.faultOccured(3);
+			return 0;
+		}
+
+		// Check if address is the first 6 reserved addresses and if return directly from memory
+		if (address < 6 ) {
+			return memory.read(address);
+		}
+
+		if (trace != null) {
+			trace.record(AddressTrace.READ, address);
+		}
+		return l1d.read(address, memory);
+	}
+
+	// Function to write a data word at the given address through the data cache
+	public void write(int address, int data, Memory memory) {
+		// Check if address is referencing a reserved memory location, or is greater than maximum memory size, and if so, HALT
+		if (address == 0 || address == 1 || address == 3 || address == 5  ) {
+			faultHandler.faultOccured(0);
+			return;
+		} else if (address >= MEMORYSIZE ) {
+			faultHandler.faultOccured(0);
+			return;
+		}
+
+		// The first 6 addresses are not cached (read bypasses the cache for them), so write them directly to memory
+		if (address < 6 ) {
+			memory.write(address, data);
+			return;
+		}
+
+		if (trace != null) {
+			trace.record(AddressTrace.WRITE, address);
+		}
+		l1d.write(address, data, memory);
+
+		// The instruction cache copy of the word is now stale, and the word may be an instruction that was already
+		// decoded, so drop both
+		l1i.removeWord(address, memory);
+		memory.decodedInstructions.invalidate(address);
+	}
+
+	// Function writing the dirty words of the addresses from start (included) to end (excluded) back to memory, for
+	// units accessing memory directly (see VectorUnit). The level 2 copies go first, the level 1 ones being newer
+	public void flushRange(int start, int end, Memory memory) {
+		if (l2 != null) {
+			l2.flushRange(start, end, memory);
+		}
+		l1d.flushRange(start, end, memory);
+	}
+
+	// Function bringing the copies of the addresses from start (included) to end (excluded) up to date once they were
+	// written to memory directly: the data levels take the new values, while the instruction cache copies and the
+	// decoded instructions are dropped as they are on a write
+	public void refreshRange(int start, int end, Memory memory) {
+		l1d.refreshRange(start, end, memory);
+		if (l2 != null) {
+			l2.refreshRange(start, end, memory);
+		}
+		l1i.invalidateRange(start, end);
+		for (int address = start; address < end; address++) {
+			memory.decodedInstructions.invalidate(address);
+		}
+	}
+
+	// Function charging the caches with the accesses of a unit working on the addresses from start (included) to end
+	// (excluded) in memory directly: one read, or one write of the value memory holds, per line of the data cache.
+	// They are counted, recorded and followed by prefetches as the program's own accesses are
+	public void accessRange(int start, int end, boolean write, Memory memory) {
+		int lineMask = l1d.WORDSPERLINE - 1;
+		for (int address = start; address < end; address = (address | lineMask) + 1) {
+			if (write) {
+				write(address, memory.read(address), memory);
+			} else {
+				read(address, memory);
+			}
+		}
+	}
+
+	// Function replaying a recorded trace through the caches, against a memory of their own so that the machine is
+	// left untouched. Only the counters of the levels are of interest afterwards
+	public void replay(AddressTrace trace) {
+		Memory memory = new Memory();
+		for (int i = 0; i < trace.size(); i++) {
+			int address = trace.addressAt(i);
+			switch (trace.kindAt(i)) {
+			case AddressTrace.INSTRUCTION:
+				l1i.read(address, memory);
+				break;
+			case AddressTrace.READ:
+				l1d.read(address, memory);
+				break;
+			default:
+				l1d.write(address, 0, memory);
+				l1i.removeWord(address, memory);
+				break;
+			}
+		}
+	}
+
+	// Function giving the levels the address of the instruction being executed, which the stride prefetcher tracks the
+	// reads of (the address is 0 when it is not set, as when replaying a trace)
+	public void setProgramCounter(IntSupplier programCounter) {
+		for (Cache level : getLevels()) {
+			level.programCounter = programCounter;
+		}
+	}
+
+	// Function returning the levels from the top, without the missing level 2 cache
+	public Cache[] getLevels() {
+		return l2 == null ? new Cache[] { l1i, l1d } : new Cache[] { l1i, l1d, l2 };
+	}
+
+	// Function to clear all the caches (used by the IPL button)
+	public void clearCaches() {
+		for (Cache level : getLevels()) {
+			level.clearCache();
+		}
+	}
+
+	// Function building a hierarchy from the cache.l1i.*, cache.l1d.* and cache.l2.* properties (see
+	// CacheConfiguration.fromProperties, ex: -Dcache.l1d.fill=LINE -Dcache.l1d.prefetcher=STREAM) and cache.inclusion
+	// (INCLUSIVE or EXCLUSIVE). Setting cache.l2.lines to 0 leaves out the level 2 cache
+	public static CacheHierarchy fromProperties(Properties properties) {
+		CacheConfiguration l1i = CacheConfiguration.fromProperties(properties, "cache.l1i", CacheConfiguration.DEFAULT);
+		CacheConfiguration l1d = CacheConfiguration.fromProperties(properties, "cache.l1d", CacheConfiguration.DEFAULT);
+		CacheConfiguration l2 = null;
+		if (!"0".equals(properties.getProperty("cache.l2.lines"))) {
+			l2 = CacheConfiguration.fromProperties(properties, "cache.l2", DEFAULT_L2);
+		}
+		Inclusion inclusion = Inclusion
+				.valueOf(properties.getProperty("cache.inclusion", Inclusion.INCLUSIVE.name()).toUpperCase());
+		return new CacheHierarchy(l1i, l1d, l2, inclusion);
+	}
+}
@@ -0,0 +1,141 @@
+package components;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/* The CacheSweep class compares cache shapes without rerunning the program: an address trace recorded once (see
+ * AddressTrace) is replayed through a fresh hierarchy for every level 1 configuration of the sweep, the replays being
+ * spread over a fork-join pool. The level 2 cache and inclusion mode stay those of the machine the trace came from.
+ */
+public class CacheSweep {
+
+	// Hit rates of the hierarchy for one level 1 configuration
+	public static class Result {
+		public final CacheConfiguration configuration;
+		public final double l1iHitRate;
+		public final double l1dHitRate;
+		public final double l2HitRate; // NaN when there is no level 2 cache
+		public final long memoryAccesses; // Misses that went past the last level to read memory
+
+		Result(CacheConfiguration configuration, CacheHierarchy caches) {
+			this.configuration = configuration;
+			this.l1iHitRate = caches.l1i.getHitRate();
+			this.l1dHitRate = caches.l1d.getHitRate();
+			this.l2HitRate = caches.l2 == null ? Double.NaN : caches.l2.getHitRate();
+			this.memoryAccesses = TimingModel.memoryAccesses(caches);
+		}
+	}
+
+	// Replays are split until this many configurations are left for a single task
+	private static final int CONFIGURATIONS_PER_TASK = 4;
+
+	private final AddressTrace trace;
+	private final CacheConfiguration l2;
+	private final CacheHierarchy.Inclusion inclusion;
+
+	// Class constructor, l2 may be null to sweep machines with level 1 caches only
+	public CacheSweep(AddressTrace trace, CacheConfiguration l2, CacheHierarchy.Inclusion inclusion) {
+		this.trace = trace;
+		this.l2 = l2;
+		this.inclusion = inclusion;
+	}
+
+	// Function returning the default sweep: 8 to 256 lines of 1 to 8 words (at most the size of memory), direct mapped
+	// up to fully associative, with every replacement policy
+	public static List<CacheConfiguration> defaultConfigurations() {
+		List<CacheConfiguration> configurations = new ArrayList<>();
+		for (int lines = 8; lines <= 256; lines *= 2) {
+			for (int wordsPerLine = 1; wordsPerLine <= 8; wordsPerLine *= 2) {
+				if (lines * wordsPerLine > 2048) {
+					continue;
+				}
+				for (int associativity = 1; associativity <= lines; associativity *= 2) {
+					// Between 8-way and fully associative only fully associative is kept
+					if (associativity > 8 && associativity != lines) {
+						continue;
+					}
+					for (ReplacementPolicy.Type policy : ReplacementPolicy.Type.values()) {
+						// The replacement policy makes no difference with a single way, and the tree of pseudo LRU
+						// holds at most 64 ways
+						if (associativity == 1 && policy != ReplacementPolicy.Type.FIFO) {
+							continue;
+						}
+						if (associativity > 64 && policy == ReplacementPolicy.Type.PLRU) {
+							continue;
+						}
+						configurations.add(new CacheConfiguration(lines, wordsPerLine, associativity, policy));
+					}
+				}
+			}
+		}
+		return configurations;
+	}
+
+	// Function replaying the trace once for each configuration, both level 1 caches taking that configuration. The
+	// results are in the same order as the configurations
+	public List<Result> run(List<CacheConfiguration> configurations) {
+		Result[] results = new Result[configurations.size()];
+		ForkJoinPool.commonPool().invoke(new ReplayTask(configurations, results, 0, results.length));
+
+		List<Result> list = new ArrayList<>(results.length);
+		for (Result result : results) {
+			list.add(result);
+		}
+		return list;
+	}
+
+	// Function replaying the trace through a hierarchy built with the given level 1 configuration
+	public Result replay(CacheConfiguration l1) {
+		CacheHierarchy caches = new CacheHierarchy(l1, l1, l2, inclusion);
+		caches.replay(trace);
+		return new Result(l1, caches);
+	}
+
+	// Function formatting results as a plain text table
+	public static String formatTable(List<Result> results) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%5s %5s %5s %-7s %7s %7s %7s %9s%n", "Lines", "Words", "Ways", "Policy", "L1I %",
+				"L1D %", "L2 %", "Memory"));
+		for (Result result : results) {
+			CacheConfiguration configuration = result.configuration;
+			sb.append(String.format("%5d %5d %5d %-7s %7.2f %7.2f %7s %9d%n", configuration.lines,
+					configuration.wordsPerLine, configuration.associativity, configuration.replacementPolicy,
+					result.l1iHitRate, result.l1dHitRate,
+					Double.isNaN(result.l2HitRate) ? "-" : String.format("%.2f", result.l2HitRate),
+					result.memoryAccesses));
+		}
+		return sb.toString();
+	}
+
+	// Fork-join task replaying the trace for a range of configurations
+	private class ReplayTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final List<CacheConfiguration> configurations;
+		private final Result[] results;
+		private final int from;
+		private final int to;
+
+		ReplayTask(List<CacheConfiguration> configurations, Result[] results, int from, int to) {
+			this.configurations = configurations;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= CONFIGURATIONS_PER_TASK) {
+				for (int i = from; i < to; i++) {
+					results[i] = replay(configurations.get(i));
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ReplayTask(configurations, results, from, middle),
+					new ReplayTask(configurations, results, middle, to));
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package components;
+
+/* The DecodedInstruction class holds an instruction word already broken down into its fields, along with the handler
+ * the CPU uses to execute it, so that an instruction executed many times (such as in a loop) is only decoded once.
+ */
+public final class DecodedInstruction {
+
+	public final int word; // The 16 bit instruction word the fields were decoded from
+	public final int opcode; // Bits 15-10
+	public final int GPR; // Bits 9-8
+	public final int IX; // Bits 7-6
+	public final int I; // Bit 5, indirect addressing when set
+	public final int address; // Bits 4-0
+	final InstructionHandler handler; // Handler from the CPU instruction table for the opcode
+
+	DecodedInstruction(int word, InstructionHandler handler) {
+		this.word = word;
+		this.opcode = (word >>> 10) & 0b111111;
+		this.GPR = (word >>> 8) & 0b11;
+		this.IX = (word >>> 6) & 0b11;
+		this.I = (word >>> 5) & 0b1;
+		this.address = word & 0b11111;
+		this.handler = handler;
+	}
+}
@@ -0,0 +1,74 @@
+package components;
+
+import java.util.Arrays;
+
+/* The DecodedInstructionCache class keeps the decoded form of the instructions fetched from each memory address, and
+ * the blocks translated from them by the BlockTranslator, by start address.
+ * It is owned by Memory and an entry is dropped whenever its address is written (through Memory or the L1 cache),
+ * along with every block holding it, so that self-modifying code is decoded again the next time it is fetched.
+ */
+public class DecodedInstructionCache {
+
+	private final DecodedInstruction[] entries; // Decoded instruction for each address, null when not decoded
+	private final TranslatedBlock[] blocks; // Block starting at each address, null when not translated
+
+	public DecodedInstructionCache(int size) {
+		entries = new DecodedInstruction[size];
+		blocks = new TranslatedBlock[size];
+	}
+
+	// Function returning the decoded instruction at the given address, or null if it has to be fetched and decoded
+	public DecodedInstruction get(int address) {
+		if (address < 0 || address >= entries.length) {
+			return null;
+		}
+		return entries[address];
+	}
+
+	// Function storing the decoded instruction fetched from the given address
+	public void put(int address, DecodedInstruction instruction) {
+		if (address >= 0 && address < entries.length) {
+			entries[address] = instruction;
+		}
+	}
+
+	// Function returning the block translated from the given address, or null if it has to be translated
+	TranslatedBlock getBlock(int address) {
+		if (address < 0 || address >= blocks.length) {
+			return null;
+		}
+		return blocks[address];
+	}
+
+	// Function storing a translated block, its instructions being decoded in this cache
+	void putBlock(TranslatedBlock block) {
+		blocks[block.start] = block;
+	}
+
+	// Function called whenever the word at the given address is written. A block only holds decoded instructions, so
+	// there is no block to drop when the word was not decoded, as is the case for data
+	public void invalidate(int address) {
+		if (address >= 0 && address < entries.length && entries[address] != null) {
+			entries[address] = null;
+
+			for (int start = Math.max(0, address - BlockTranslator.MAX_BLOCK_LENGTH + 1); start <= address; start++) {
+				TranslatedBlock block = blocks[start];
+				if (block != null && start + block.length() > address) {
+					block.rewritten();
+					blocks[start] = null;
+				}
+			}
+		}
+	}
+
+	// Function to drop every decoded instruction and block (used when the whole memory is reset)
+	public void clear() {
+		Arrays.fill(entries, null);
+		for (int start = 0; start < blocks.length; start++) {
+			if (blocks[start] != null) {
+				blocks[start].valid = false;
+				blocks[start] = null;
+			}
+		}
+	}
+}
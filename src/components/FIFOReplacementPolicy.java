@@ -0,0 +1,42 @@
+package components;
+
+import java.util.Arrays;
+
+/* First In First Out replacement: every fill stamps the line with an increasing counter, and the victim is the way of
+ * the set with the oldest stamp. Hits do not change the order. Stamping the fills rather than rotating a pointer over
+ * the ways keeps the order right when lines are freed and refilled out of turn (see Cache.removeWord).
+ */
+public class FIFOReplacementPolicy implements ReplacementPolicy {
+
+	private final int ways;
+	private final long[] filled; // Stamp of the fill of each line (set * ways + way)
+	private long clock; // Incremented on each fill
+
+	public FIFOReplacementPolicy(int numberOfSets, int ways) {
+		this.ways = ways;
+		this.filled = new long[numberOfSets * ways];
+	}
+
+	public void lineFilled(int set, int way) {
+		filled[set * ways + way] = ++clock;
+	}
+
+	public void lineAccessed(int set, int way) {
+	}
+
+	public int victim(int set) {
+		int first = set * ways;
+		int victim = 0;
+		for (int way = 1; way < ways; way++) {
+			if (filled[first + way] < filled[first + victim]) {
+				victim = way;
+			}
+		}
+		return victim;
+	}
+
+	public void reset() {
+		Arrays.fill(filled, 0);
+		clock = 0;
+	}
+}
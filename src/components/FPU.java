@@ -0,0 +1,224 @@
+package components;
+
+/* The FPU class does the arithmetic of the machine's 16 bit floating point format on the packed words themselves,
+ * with shifts, masks and integer arithmetic:
+ *   bit 15: sign, bit 14: sign of the exponent, bits 13 to 8: exponent, bits 7 to 0: mantissa
+ * the value being (-1)^sign x mantissa x 2^exponent, the mantissa an integer from 0 to 255 and the exponent from -63
+ * to 63. A mantissa of 0 is zero whatever the rest of the word.
+ * Operands are aligned and combined exactly in a long, and the result is brought back to an 8 bit mantissa rounding to
+ * the nearest value (ties to an even mantissa). The functions return the resulting word with the condition code bits
+ * the operation sets shifted left by 16 (see FLAGS_SHIFT), as Cache does with its DIRTY bit: a result too large for the
+ * format saturates to the largest value of its sign and sets OVERFLOW, a non zero result too small for it becomes 0
+ * and sets UNDERFLOW, and a division by zero leaves the dividend unchanged and sets DIVZERO.
+ */
+public final class FPU {
+
+	static final int FLAGS_SHIFT = 16; // Condition code bits returned with a result are shifted left by this much
+	static final int OVERFLOW = CPU.CC_OVERFLOW << FLAGS_SHIFT;
+	static final int UNDERFLOW = CPU.CC_UNDERFLOW << FLAGS_SHIFT;
+	static final int DIVZERO = CPU.CC_DIVZERO << FLAGS_SHIFT;
+
+	static final int SIGN = 1 << 15;
+	static final int EXPONENT_SIGN = 1 << 14;
+	static final int EXPONENT_SHIFT = 8;
+	static final int MAX_EXPONENT = 63;
+	static final int MAX_MANTISSA = 255;
+
+	// Difference of exponents past which the smaller operand of an addition cannot change the rounded result
+	private static final int ALIGNMENT_LIMIT = 40;
+	// Extra bits of quotient computed by a division before it is rounded
+	private static final int QUOTIENT_BITS = 40;
+
+	private FPU() {
+	}
+
+	// Functions unpacking a word
+	static boolean isNegative(int word) {
+		return (word & SIGN) != 0;
+	}
+
+	static int exponent(int word) {
+		int exponent = (word >>> EXPONENT_SHIFT) & MAX_EXPONENT;
+		return (word & EXPONENT_SIGN) != 0 ? -exponent : exponent;
+	}
+
+	static int mantissa(int word) {
+		return word & MAX_MANTISSA;
+	}
+
+	// Function packing a value, rounding the mantissa to 8 bits, with the flags it sets (see the class comment)
+	static int pack(boolean negative, long mantissa, int exponent) {
+		if (mantissa == 0) {
+			return 0;
+		}
+
+		// Drop the bits that do not fit in the mantissa, or in the smallest exponent
+		int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(mantissa) - 8);
+		shift = Math.max(shift, -MAX_EXPONENT - exponent);
+		if (shift > 0) {
+			mantissa = roundShift(mantissa, shift);
+			exponent += shift;
+			if (mantissa > MAX_MANTISSA) {
+				// Rounding carried into a ninth bit, which only happens with an even mantissa of 256
+				mantissa >>= 1;
+				exponent++;
+			}
+			if (mantissa == 0) {
+				return UNDERFLOW;
+			}
+		}
+
+		// A small mantissa with too large an exponent may still be written with a smaller exponent
+		while (exponent > MAX_EXPONENT && mantissa <= MAX_MANTISSA >> 1) {
+			mantissa <<= 1;
+			exponent--;
+		}
+		int flags = 0;
+		if (exponent > MAX_EXPONENT) {
+			mantissa = MAX_MANTISSA;
+			exponent = MAX_EXPONENT;
+			flags = OVERFLOW;
+		}
+
+		int word = (int) mantissa | (Math.abs(exponent) << EXPONENT_SHIFT);
+		if (exponent < 0) {
+			word |= EXPONENT_SIGN;
+		}
+		if (negative) {
+			word |= SIGN;
+		}
+		return word | flags;
+	}
+
+	// Helper function shifting a mantissa right, rounding to the nearest value and ties to even
+	private static long roundShift(long mantissa, int shift) {
+		if (shift >= 63) {
+			return 0;
+		}
+		long kept = mantissa >>> shift;
+		long dropped = mantissa & ((1L << shift) - 1);
+		long half = 1L << (shift - 1);
+		if (dropped > half || (dropped == half && (kept & 1) != 0)) {
+			kept++;
+		}
+		return kept;
+	}
+
+	// Function returning a + b
+	public static int add(int a, int b) {
+		long mantissaA = mantissa(a);
+		long mantissaB = mantissa(b);
+		if (mantissaB == 0) {
+			return mantissaA == 0 ? 0 : a & Word.MASK;
+		}
+		if (mantissaA == 0) {
+			return b & Word.MASK;
+		}
+
+		int exponentA = exponent(a);
+		int exponentB = exponent(b);
+		if (exponentA - exponentB > ALIGNMENT_LIMIT) {
+			return a & Word.MASK;
+		}
+		if (exponentB - exponentA > ALIGNMENT_LIMIT) {
+			return b & Word.MASK;
+		}
+
+		// Align on the smaller exponent, which is exact in a long
+		int exponent = Math.min(exponentA, exponentB);
+		long valueA = mantissaA << (exponentA - exponent);
+		long valueB = mantissaB << (exponentB - exponent);
+		long sum = (isNegative(a) ? -valueA : valueA) + (isNegative(b) ? -valueB : valueB);
+		return pack(sum < 0, Math.abs(sum), exponent);
+	}
+
+	// Function returning a - b
+	public static int subtract(int a, int b) {
+		return add(a, b ^ SIGN);
+	}
+
+	// Function returning a x b
+	public static int multiply(int a, int b) {
+		return pack(isNegative(a) != isNegative(b), (long) mantissa(a) * mantissa(b), exponent(a) + exponent(b));
+	}
+
+	// Function returning a / b, or a with DIVZERO when b is zero
+	public static int divide(int a, int b) {
+		if (mantissa(b) == 0) {
+			return (a & Word.MASK) | DIVZERO;
+		}
+		long dividend = (long) mantissa(a) << QUOTIENT_BITS;
+		long quotient = dividend / mantissa(b);
+		int exponent = exponent(a) - exponent(b) - QUOTIENT_BITS;
+		// Keep whether anything was left over as a last bit, so that rounding never sees a false tie
+		if (dividend % mantissa(b) != 0) {
+			quotient = (quotient << 1) | 1;
+			exponent--;
+		}
+		return pack(isNegative(a) != isNegative(b), quotient, exponent);
+	}
+
+	// Function comparing a and b, returning a negative number, 0 or a positive number when a is smaller, equal or
+	// larger. Zeros of either sign are equal
+	public static int compare(int a, int b) {
+		long mantissaA = mantissa(a);
+		long mantissaB = mantissa(b);
+		int signA = mantissaA == 0 ? 0 : isNegative(a) ? -1 : 1;
+		int signB = mantissaB == 0 ? 0 : isNegative(b) ? -1 : 1;
+		if (signA != signB || signA == 0) {
+			return Integer.compare(signA, signB);
+		}
+
+		// Same sign: compare the magnitudes, the one with the much larger exponent being the larger
+		int exponentA = exponent(a);
+		int exponentB = exponent(b);
+		int magnitude;
+		if (exponentA - exponentB > ALIGNMENT_LIMIT) {
+			magnitude = 1;
+		} else if (exponentB - exponentA > ALIGNMENT_LIMIT) {
+			magnitude = -1;
+		} else {
+			int exponent = Math.min(exponentA, exponentB);
+			magnitude = Long.compare(mantissaA << (exponentA - exponent), mantissaB << (exponentB - exponent));
+		}
+		return signA * magnitude;
+	}
+
+	// Function converting a word to a fixed point number (a 16 bit two's complement integer), dropping the fraction.
+	// Values out of the range of the integer saturate and set OVERFLOW
+	public static int toFixed(int word) {
+		long mantissa = mantissa(word);
+		if (mantissa == 0) {
+			return 0;
+		}
+		int exponent = exponent(word);
+		long magnitude;
+		if (exponent >= 0) {
+			magnitude = exponent > Word.BITS ? Long.MAX_VALUE : mantissa << exponent;
+		} else {
+			magnitude = -exponent >= 63 ? 0 : mantissa >>> -exponent;
+		}
+
+		long value = isNegative(word) ? -magnitude : magnitude;
+		if (value > Short.MAX_VALUE) {
+			return Short.MAX_VALUE | OVERFLOW;
+		}
+		if (value < Short.MIN_VALUE) {
+			return (Short.MIN_VALUE & Word.MASK) | OVERFLOW;
+		}
+		return (int) value & Word.MASK;
+	}
+
+	// Function converting a fixed point number (a 16 bit two's complement integer) to a word, rounding it to 8
+	// significant bits
+	public static int fromFixed(int fixed) {
+		int value = (short) fixed;
+		return pack(value < 0, Math.abs(value), 0);
+	}
+
+	// Function returning the value of a word, used when displaying it
+	public static double toDouble(int word) {
+		double value = Math.scalb((double) mantissa(word), exponent(word));
+		return isNegative(word) ? -value : value;
+	}
+}
@@ -0,0 +1,14 @@
+package components;
+
+/* The FaultHandler interface is how memory and the caches report a machine fault to the machine they belong to. The
+ * id is the one of the fault routine (0 reserved location, 1 illegal trap, 2 illegal opcode, 3 address out of bounds).
+ */
+@FunctionalInterface
+public interface FaultHandler {
+
+	// Handler used by components that do not belong to a machine, such as the caches replaying a trace
+	FaultHandler IGNORE = id -> {
+	};
+
+	void faultOccured(int id);
+}
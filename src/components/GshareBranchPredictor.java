@@ -0,0 +1,39 @@
+package components;
+
+import java.util.Arrays;
+
+/* Gshare prediction: 2 bit saturating counters indexed by the branch address XORed with the global history of the
+ * last branch outcomes, so that branches whose direction depends on the branches before them are told apart.
+ */
+public class GshareBranchPredictor implements BranchPredictor {
+
+	private final byte[] counters;
+	private final int mask;
+	private final int historyMask;
+	private int history; // Outcomes of the last branches, the most recent in bit 0
+
+	public GshareBranchPredictor(int entries, int historyBits) {
+		if (Integer.bitCount(entries) != 1) {
+			throw new IllegalArgumentException("Number of predictor entries must be a power of two: " + entries);
+		}
+		this.counters = new byte[entries];
+		this.mask = entries - 1;
+		this.historyMask = (1 << historyBits) - 1;
+		// Start weakly not taken
+		Arrays.fill(counters, (byte) 1);
+	}
+
+	public boolean predict(int pc) {
+		return counters[(pc ^ history) & mask] >= 2;
+	}
+
+	public void update(int pc, boolean taken) {
+		int entry = (pc ^ history) & mask;
+		if (taken && counters[entry] < 3) {
+			counters[entry]++;
+		} else if (!taken && counters[entry] > 0) {
+			counters[entry]--;
+		}
+		history = ((history << 1) | (taken ? 1 : 0)) & historyMask;
+	}
+}
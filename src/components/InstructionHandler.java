@@ -0,0 +1,13 @@
+package components;
+
+import java.io.FileNotFoundException;
+
+/* The InstructionHandler interface is implemented by each of the CPU's instructions. The CPU keeps one handler per opcode
+ * in its instruction table and executes an instruction by calling the handler found at the index of its numeric opcode.
+ */
+@FunctionalInterface
+interface InstructionHandler {
+
+	// Execute the instruction currently decoded in the CPU registers
+	void execute(Memory memory, CacheHierarchy caches) throws InterruptedException, FileNotFoundException;
+}
@@ -0,0 +1,42 @@
+package components;
+
+import java.util.Arrays;
+
+/* Least Recently Used replacement: every fill or hit stamps the line with an increasing counter, and the victim is the
+ * way of the set with the oldest stamp.
+ */
+public class LRUReplacementPolicy implements ReplacementPolicy {
+
+	private final int ways;
+	private final long[] lastUse; // Stamp of the last fill or hit of each line (set * ways + way)
+	private long clock; // Incremented on each fill or hit
+
+	public LRUReplacementPolicy(int numberOfSets, int ways) {
+		this.ways = ways;
+		this.lastUse = new long[numberOfSets * ways];
+	}
+
+	public void lineFilled(int set, int way) {
+		lastUse[set * ways + way] = ++clock;
+	}
+
+	public void lineAccessed(int set, int way) {
+		lastUse[set * ways + way] = ++clock;
+	}
+
+	public int victim(int set) {
+		int first = set * ways;
+		int victim = 0;
+		for (int way = 1; way < ways; way++) {
+			if (lastUse[first + way] < lastUse[first + victim]) {
+				victim = way;
+			}
+		}
+		return victim;
+	}
+
+	public void reset() {
+		Arrays.fill(lastUse, 0);
+		clock = 0;
+	}
+}
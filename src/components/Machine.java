@@ -0,0 +1,382 @@
+package components;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/* The Machine class is one complete simulated computer: its CPU, memory, caches, ROM and counters, the handling of
+ * its faults and the loading of programs into it. Machines share nothing, so any number of them can exist (and run on
+ * different threads) in the same process.
+ * The machine reads from and prints to its Peripherals, and tells its observers (the consoles, or the batch runner)
+ * when its state changes.
+ */
+public class Machine {
+
+	public final Peripherals peripherals; // Devices the machine gets input from and prints to
+	private final Properties configuration; // cache.* properties the caches are built from
+	private final List<MachineObserver> observers = new ArrayList<>();
+
+	public Memory memory;
+	public CacheHierarchy caches;
+	public ROM rom;
+	public CPU cpu;
+	public PerformanceCounters counters; // Instructions retired, faults and run time since the last reset
+	public TimingModel timing; // Cycles of the run computed from the counters, timing.* properties
+	public PipelineModel pipeline; // Pipeline timing of the run, null unless the pipeline property is true
+	public BranchPredictionUnit branchPrediction; // Predictions of the branches, null unless branch.predictor is set
+	private BlockTranslator translator;
+	public final SnapshotPublisher snapshots; // State published between slices for the other threads to read
+
+	public boolean reportAtHalt; // Whether the counters are printed to standard output when HALT is executed
+	public boolean translateBlocks; // Whether basic blocks are translated (see BlockTranslator), cpu.translate property
+	// Times the machine has to execute at an address before translating the block starting there, so that code run
+	// only a few times (setup code) is left to the interpreter. cpu.translate.threshold property
+	public long translationThreshold;
+	static final long DEFAULT_TRANSLATION_THRESHOLD = 16;
+	private boolean halted;
+	private String deviceError; // Error of a device that halted the machine, null when it was not halted by one
+
+	// Instructions executed between two publishes of the state and checks for a stop when running in the background
+	static final int SLICE = 4096;
+	private volatile boolean stopRequested; // Set from another thread to stop the thread running the machine
+
+	// Class constructor, the shape of the caches being taken from the cache.* system properties
+	public Machine(Peripherals peripherals) {
+		this(peripherals, System.getProperties());
+	}
+
+	// Class constructor, the shape of the caches being taken from the given cache.* properties (see
+	// CacheHierarchy.fromProperties)
+	public Machine(Peripherals peripherals, Properties configuration) {
+		this.peripherals = peripherals;
+		this.configuration = configuration;
+		this.translateBlocks = !"false".equalsIgnoreCase(configuration.getProperty("cpu.translate"));
+		this.translationThreshold = Long.parseLong(
+				configuration.getProperty("cpu.translate.threshold", String.valueOf(DEFAULT_TRANSLATION_THRESHOLD)));
+		this.timing = TimingModel.fromProperties(configuration);
+		build();
+		this.snapshots = new SnapshotPublisher(memory.SIZE);
+	}
+
+	public void addObserver(MachineObserver observer) {
+		observers.add(observer);
+	}
+
+	public void removeObserver(MachineObserver observer) {
+		observers.remove(observer);
+	}
+
+	// Helper function creating the components of the machine
+	private void build() {
+		memory = new Memory();
+		caches = CacheHierarchy.fromProperties(configuration);
+		rom = new ROM();
+		cpu = new CPU(this);
+		counters = new PerformanceCounters(memory.SIZE);
+		translator = new BlockTranslator(this);
+		pipeline = PipelineModel.fromProperties(configuration, timing);
+		branchPrediction = BranchPredictionUnit.fromProperties(configuration, memory.SIZE);
+
+		memory.faultHandler = this::faultOccured;
+		caches.faultHandler = this::faultOccured;
+		caches.setProgramCounter(() -> cpu.PC);
+	}
+
+	// Function rebuilding the components of the machine, a trace being recorded carries on with the new caches
+	public void reset() {
+		deviceError = null;
+		AddressTrace recording = caches.trace;
+		build();
+		caches.trace = recording;
+
+		for (MachineObserver observer : observers) {
+			observer.machineReset(this);
+		}
+	}
+
+	// Function resetting the machine and loading the content of ROM into memory (IPL button), then resuming it
+	public void ipl() {
+		reset();
+		rom.ROMloader(memory, cpu, caches);
+		halt(false);
+	}
+
+	// Function halting or resuming the machine
+	public void halt(boolean toHalt) {
+		halted = toHalt;
+		if (!toHalt) {
+			deviceError = null;
+		}
+		for (MachineObserver observer : observers) {
+			observer.machineHalted(this, toHalt);
+		}
+	}
+
+	public boolean isHalted() {
+		return halted;
+	}
+
+	// Function called when a device rejects what the program asks of it and the program can't go on: the error is
+	// reported and the machine halted, the halt being told apart from a HALT instruction (see getDeviceError)
+	public void deviceErrorOccured(String message) {
+		peripherals.showError(message);
+		deviceError = message;
+		halt(true);
+	}
+
+	// Function returning the error of the device that halted the machine, null when it was not halted by one
+	public String getDeviceError() {
+		return deviceError;
+	}
+
+	// Function publishing the state of the machine and telling the observers it changed
+	public void update() {
+		snapshots.publish(this);
+		for (MachineObserver observer : observers) {
+			observer.machineUpdated(this);
+		}
+	}
+
+	// Function passing a status message to the observers
+	public void status(String text) {
+		for (MachineObserver observer : observers) {
+			observer.statusMessage(this, text);
+		}
+	}
+
+	// Function loading a program file (an image file or the text format, see ProgramImage) into memory. The words go
+	// through the data cache when throughCaches is set, straight to memory otherwise. PC is left unchanged
+	public void loadProgramFile(String fileName, boolean throughCaches) throws IOException {
+		ProgramImage image = ProgramImage.read(fileName, cpu.PC);
+		if (!throughCaches) {
+			image.loadInto(memory);
+		}
+		for (ProgramImage.Segment segment : image.segments) {
+			if (throughCaches) {
+				for (int i = 0; i < segment.length(); i++) {
+					caches.write(segment.origin + i, segment.wordAt(i), memory);
+				}
+			}
+			// MAR is left after the last word loaded
+			cpu.MAR = segment.origin + segment.length();
+		}
+	}
+
+	// Function loading a program image into memory and setting PC to its entry point
+	public void load(ProgramImage image) {
+		image.loadInto(memory);
+		cpu.PC = image.entryPC;
+	}
+
+	// Function reading the characters of the card reader file into memory starting at location 159, each sentence being
+	// echoed on the printer. Returns false (halting the machine) when they do not fit
+	public boolean loadCardReader(String fileName) throws IOException {
+		File inputFile = new File(fileName);
+		BufferedReader br = new BufferedReader(new FileReader(inputFile));
+
+		List<String> lines = new ArrayList<>();
+		String line;
+		while ((line = br.readLine()) != null) {
+			lines.add(line);
+		}
+		br.close();
+
+		return loadCardReaderLines(lines);
+	}
+
+	// Function storing the characters of the card reader lines into memory starting at location 159, see
+	// loadCardReader
+	public boolean loadCardReaderLines(List<String> lines) {
+		int memoryLocationToStoreChar = 159;
+
+		StringBuilder sentenceBuilder = new StringBuilder();
+
+		for (String instruction : lines) {
+			for (char c : instruction.toUpperCase().toCharArray()) {
+
+				// The user input characters are stored in memory location 2000-2047 so we do
+				// not want to run into this. We want spot 2000 to be left blank (to indicate
+				// the end of the input) so that is why
+				// we halt when we get to 1999.
+				if (memoryLocationToStoreChar >= 1999) {
+					status("Input from Card Reader too long.");
+					halt(true);
+					return false;
+				}
+
+				memory.write(memoryLocationToStoreChar, c);
+				memoryLocationToStoreChar++;
+
+				sentenceBuilder.append(c);
+
+				if ((c == '.') || (c == '?') || (c == '!')) {
+					peripherals.appendToConsolePrinter(sentenceBuilder.toString(), false);
+					sentenceBuilder = new StringBuilder();
+				}
+
+			}
+		}
+
+		return true;
+	}
+
+	// Execute one word from memory
+	public void executeOneStep() throws InterruptedException, FileNotFoundException {
+		DecodedInstruction instruction = fetch();
+
+		cpu.executeDecoded(instruction, memory, caches);
+		counters.instructionRetired(instruction.opcode);
+
+		cpu.PC++;
+	}
+
+	// Same as above, also handing branches to the branch prediction unit and every instruction, with the cycles
+	// spent in the caches, to the pipeline model (either may be null)
+	private void executeOneStepObserved() throws InterruptedException, FileNotFoundException {
+		int pc = cpu.PC;
+		long cacheCycles = pipeline == null ? 0 : timing.cacheCycles(caches);
+		DecodedInstruction instruction = fetch();
+		long fetchedCacheCycles = pipeline == null ? 0 : timing.cacheCycles(caches);
+		long vectorElements = counters.vectorElements;
+
+		cpu.executeDecoded(instruction, memory, caches);
+		counters.instructionRetired(instruction.opcode);
+
+		cpu.PC++;
+
+		boolean mispredicted = branchPrediction != null && BranchPredictionUnit.isBranch(instruction.opcode)
+				&& branchPrediction.branchExecuted(pc, instruction.opcode, cpu.PC);
+		if (pipeline != null) {
+			long fetchCycles = fetchedCacheCycles - cacheCycles;
+			// The elements of a vector instruction are streamed in memory
+			long dataCycles = timing.cacheCycles(caches) - fetchedCacheCycles
+					+ (counters.vectorElements - vectorElements) * timing.vectorElement;
+			pipeline.retired(instruction, fetchCycles, dataCycles, mispredicted);
+		}
+	}
+
+	// Helper function fetching the word at PC through the caches into MBR and IR, returning its decoded form. Every
+	// fetch goes through the instruction cache, only the decoding is skipped when the instruction was already decoded
+	private DecodedInstruction fetch() {
+		cpu.MAR = cpu.PC;
+		cpu.MBR = caches.readInstruction(cpu.MAR, memory);
+
+		DecodedInstruction instruction = memory.decodedInstructions.get(cpu.MAR);
+		if (instruction == null) {
+			instruction = cpu.decode(cpu.MBR);
+			memory.decodedInstructions.put(cpu.MAR, instruction);
+		}
+		cpu.IR = cpu.MBR;
+		return instruction;
+	}
+
+	// Function executing instructions until the machine halts or maxInstructions more have been executed, the time
+	// spent being counted as run time. When translateBlocks is set, code executed translationThreshold times is
+	// translated and run a basic block at a time, as long as the block fits in what is left of maxInstructions.
+	// With a pipeline model or branch prediction every instruction is interpreted and handed to them. Returns true
+	// when the machine halted
+	public boolean run(long maxInstructions) throws InterruptedException, FileNotFoundException {
+		counters.start();
+		try {
+			long executed = 0;
+			while (!halted && executed < maxInstructions) {
+				long executions = counters.addressExecuted(cpu.PC);
+				if (pipeline != null || branchPrediction != null) {
+					executeOneStepObserved();
+					executed++;
+					continue;
+				}
+				if (translateBlocks) {
+					TranslatedBlock block = memory.decodedInstructions.getBlock(cpu.PC);
+					if (block == null) {
+						block = translator.translateIfHot(cpu.PC, executions);
+					}
+					if (block != null && block.length() <= maxInstructions - executed) {
+						int blockExecuted = block.execute();
+						counters.instructionsInBlocks += blockExecuted;
+						executed += blockExecuted;
+						continue;
+					}
+				}
+				executeOneStep();
+				executed++;
+			}
+		} finally {
+			counters.stop();
+		}
+		return halted;
+	}
+
+	// Function running the machine until it halts or another thread calls requestStop. Every SLICE instructions the
+	// state is published to snapshots and the stop request is looked at, keeping the interpreter loop free of both.
+	// Returns true when the machine halted
+	public boolean runUntilStopped() throws InterruptedException, FileNotFoundException {
+		while (!halted && !stopRequested) {
+			run(SLICE);
+			snapshots.publish(this);
+		}
+		stopRequested = false; // The request was honoured
+		snapshots.publish(this);
+		return halted;
+	}
+
+	// Function asking the thread running the machine to stop after the current slice of instructions
+	public void requestStop() {
+		stopRequested = true;
+	}
+
+	// Function called by the components of the machine when a fault occurs: the PC is saved in location 4, MFR is set
+	// and the machine halts with PC loaded from location 1 (the fault routine)
+	public void faultOccured(int id) {
+		counters.faultOccured(id);
+
+		// Store PC value in memory address 4
+		caches.write(4, cpu.PC, memory);
+
+		// Update MFR register with corresponding fault code and write to output
+		if (id == 0) {
+			cpu.MFR = CPU.MFR_RESERVED_LOCATION;
+			status("Fault: Can't write to reserved Address.");
+		} else if (id == 1) {
+			cpu.MFR = CPU.MFR_ILLEGAL_TRAP;
+		} else if (id == 2) {
+			cpu.MFR = CPU.MFR_ILLEGAL_OPCODE;
+			status("Fault: Illegal Opcode.");
+		} else if (id == 3) {
+			cpu.MFR = CPU.MFR_ADDRESS_OUT_OF_BOUNDS;
+			status("Fault: Address out of bounds.");
+		}
+		status("Fault occured at PC: " + cpu.PC + ", and MAR: " + cpu.MAR);
+		update();
+
+		// Load PC with content of memory address 1
+		cpu.PC = caches.read(1, memory);
+
+		// Halt console
+		halt(true);
+	}
+
+	// Function called by the CPU when a HALT instruction is executed, dumps the report of the run to standard output
+	// when asked to
+	public void haltReached() {
+		halt(true);
+		if (reportAtHalt) {
+			System.out.print(report());
+		}
+	}
+
+	// Function building a plain text report of the counters, caches, cycles, branches and pipeline since the last
+	// reset
+	public String report() {
+		String report = counters.report(caches) + timing.report(counters, caches);
+		if (branchPrediction != null) {
+			report += branchPrediction.report();
+		}
+		return pipeline == null ? report : report + pipeline.report();
+	}
+}
@@ -0,0 +1,23 @@
+package components;
+
+/* The MachineObserver interface is implemented by whatever displays a machine (the console windows) or collects what
+ * it reports (the batch runner). Observers are called on the thread running the machine.
+ */
+public interface MachineObserver {
+
+	// The machine was rebuilt (IPL or program load), displays of its previous run should be cleared
+	default void machineReset(Machine machine) {
+	}
+
+	// The state of the machine changed and should be displayed again
+	default void machineUpdated(Machine machine) {
+	}
+
+	// The machine was halted, or resumed when halted is false
+	default void machineHalted(Machine machine, boolean halted) {
+	}
+
+	// The machine reported a status message
+	default void statusMessage(Machine machine, String text) {
+	}
+}
@@ -0,0 +1,62 @@
+package components;
+
+/* The MachineSnapshot class is a copy of the visible state of a machine (registers, decoded instruction fields, memory
+ * and a few counters) taken between two instructions. Once taken it never changes, so the consoles can display it from
+ * their own thread while the machine keeps running on another.
+ */
+public final class MachineSnapshot {
+
+	public final int PC, CC, MAR, MBR, IR, MFR;
+	public final int[] R, X, FPR;
+	public final int opcode, GPR, IX, I, address;
+	public final short[] memory;
+	public final long instructionsRetired;
+	public final double mips;
+	public final long version; // Number of publishes before this snapshot (see SnapshotPublisher), 0 when taken directly
+
+	// Function copying the state of the machine, to be called by the thread running it (or when it is not running)
+	public MachineSnapshot(Machine machine) {
+		CPU cpu = machine.cpu;
+		PC = cpu.PC;
+		CC = cpu.CC;
+		MAR = cpu.MAR;
+		MBR = cpu.MBR;
+		IR = cpu.IR;
+		MFR = cpu.MFR;
+		R = cpu.R.clone();
+		X = cpu.X.clone();
+		FPR = cpu.FPR.clone();
+		opcode = cpu.opcode;
+		GPR = cpu.GPR;
+		IX = cpu.IX;
+		I = cpu.I;
+		address = cpu.address;
+		memory = machine.memory.addr.clone();
+		instructionsRetired = machine.counters.instructionsRetired;
+		mips = machine.counters.getMIPS();
+		version = 0;
+	}
+
+	// Function copying the state last published, only to be called by SnapshotPublisher.read which checks the copy
+	// was not torn
+	MachineSnapshot(SnapshotPublisher published, long version) {
+		PC = published.PC;
+		CC = published.CC;
+		MAR = published.MAR;
+		MBR = published.MBR;
+		IR = published.IR;
+		MFR = published.MFR;
+		R = published.R.clone();
+		X = published.X.clone();
+		FPR = published.FPR.clone();
+		opcode = published.opcode;
+		GPR = published.GPR;
+		IX = published.IX;
+		I = published.I;
+		address = published.address;
+		memory = published.memory.clone();
+		instructionsRetired = published.instructionsRetired;
+		mips = published.runNanos == 0 ? 0 : published.instructionsRetired * 1000.0 / published.runNanos;
+		this.version = version;
+	}
+}
@@ -1,37 +1,49 @@
 package components;
 
-import java.awt.event.ActionEvent;
-import java.io.BufferedReader;
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
-import components.CPU;
-import components.L1Cache;
-import components.Memory;
-import components.ROM;
 import consoles.Console;
 import consoles.TechnicianConsole;
 
-/* The Main class instantiates the different components of the program (CPU, Memory, etc.), then loads the console window.
- * It also includes functions called by the various UI buttons.
+/* The Main class creates the machine (see the Machine class) and the console windows, which are attached to it as
+ * its peripherals and observers. It also includes functions called by the various UI buttons.
  */
 public abstract class Main {
 
-	// Instantiate program components
-	static Console console = new Console("CSCI 6461");
-	public static TechnicianConsole technicianConsole = new TechnicianConsole("CSCI 6461 Technician Console");
-
-	static Memory memory = new Memory();
-	static L1Cache l1cache = new L1Cache();
-	static ROM rom = new ROM();
-	static CPU cpu = new CPU(console);
+	// Instantiate program components, they are created when the console is started
+	static Console console;
+	public static TechnicianConsole technicianConsole;
+	// Shape of the caches is taken from the cache.* system properties when they are set (ex: -Dcache.l1d.lines=64
+	// -Dcache.l1d.associativity=4 -Dcache.l2.policy=PLRU -Dcache.inclusion=EXCLUSIVE), see CacheHierarchy.fromProperties
+	static Machine machine;
+	// Accesses going into the caches, recorded while the technician console's Record Trace button is on
+	static AddressTrace trace;
+
+	// Thread running the program when Run Program is clicked, null when it is not running
+	static Thread simulationThread;
+	// Whether the program being run was stopped (rather than paused) by the user
+	static boolean stopRequested;
+	// Refreshes the consoles from a snapshot of the running machine, 30 times a second
+	static Timer refreshTimer;
+	static final int REFRESH_INTERVAL_MS = 1000 / 30;
+	static long displayedVersion = -1; // Version of the snapshot the timer last displayed
 
 	// Load UI window
 	public static void startConsole() {
+		console = new Console("CSCI 6461");
+		technicianConsole = new TechnicianConsole("CSCI 6461 Technician Console");
+		machine = new Machine(console);
+		machine.reportAtHalt = true;
+		machine.addObserver(console);
+		machine.addObserver(technicianConsole);
+
 		console.setVisible(true);
-		console.haltConsole(true);
+		machine.halt(true);
 	}
 
 	// Open technicians console
@@ -41,179 +53,146 @@ public abstract class Main {
 
 	// Called by the console class when the IPL button is clicked
 	public static void iplButtonClicked() {
-		reset();
-
 		// Load the content of rom into memory
-		rom.ROMloader(memory, cpu, console, technicianConsole, l1cache);
+		machine.ipl();
 
 		// Update UI display
-		console.updateUI(cpu, memory, l1cache);
+		machine.update();
 		console.writeToOutput("ROM loaded into memory.");
 	}
 
 	// Called by the console class when the One Step button is clicked
 	public static void oneStepButtonClicked() throws InterruptedException, FileNotFoundException {
 		// Call function to MAIN one instruction from memory address PC
-		if (console.isNotHalted) {
-			executeOneStep();
+		if (!machine.isHalted()) {
+			machine.run(1);
 		}
 
 		// Console may have been halted when the step was executed so this checks for
 		// that.
-		if (console.isNotHalted) {
+		if (!machine.isHalted()) {
 			// Update UI display
-			console.updateUI(cpu, memory, l1cache);
+			machine.update();
 			console.writeToOutput("Executed one instruction.");
 		}
 
 	}
 
 	// Called by the console class when the user wants to run the program until a
-	// HALT instruction is hit
+	// HALT instruction is hit. The program runs on a thread of its own at full speed, the consoles showing a snapshot
+	// of the machine at a fixed rate until it halts or is paused
 	public static void runProgramButtonClicked() throws FileNotFoundException, InterruptedException {
-		while (console.isNotHalted) {
-			executeOneStep();
+		if (simulationThread != null) {
+			return;
 		}
 
-		// Update UI display
-		console.updateUI(cpu, memory, l1cache);
-		console.writeToOutput("Finished running program.");
+		stopRequested = false;
+		console.setRunning(true);
+		technicianConsole.setRunning(true);
+		console.writeToOutput("Running program.");
+
+		if (refreshTimer == null) {
+			refreshTimer = new Timer(REFRESH_INTERVAL_MS, e -> refreshRunningMachine());
+		}
+		refreshTimer.start();
+
+		Machine running = machine;
+		simulationThread = new Thread(() -> {
+			try {
+				running.runUntilStopped();
+			} catch (FileNotFoundException | InterruptedException e) {
+				e.printStackTrace();
+			} finally {
+				SwingUtilities.invokeLater(Main::runFinished);
+			}
+		}, "Simulation");
+		simulationThread.start();
 	}
 
-	// Called by the console class when the Load P1 button is clicked. This loads
-	// the program that is in our program 1 file and loads it into memory
-	public static void loadP1Clicked() throws IOException {
-		reset();
-		
-		String programOneFileName = "Program_1.txt"; // Name of the file containing program 1
+	// Called by the console class when the Pause button is clicked, the program can be resumed with Run Program
+	public static void pauseButtonClicked() {
+		machine.requestStop();
+	}
 
-		// Java setup to be able to read file
-		File inputFile = new File(programOneFileName);
-		BufferedReader br = new BufferedReader(new FileReader(inputFile));
+	// Called by the console class when the Stop button is clicked, the machine is halted once the program stopped
+	public static void stopButtonClicked() {
+		stopRequested = true;
+		machine.requestStop();
+	}
 
-		// First nine memory spaces are blank
-		for (int i = 0; i < 9; i++) {
-			br.readLine();
+	// Called on the event thread by the refresh timer while the program runs, displays the state last published when
+	// it changed since the previous tick
+	private static void refreshRunningMachine() {
+		if (machine.snapshots.getVersion() == displayedVersion) {
+			return;
+		}
+		MachineSnapshot snapshot = machine.snapshots.read();
+		displayedVersion = snapshot.version;
+		console.updateUI(snapshot);
+		if (technicianConsole.isVisible()) {
+			technicianConsole.updateFromSnapshot(snapshot);
 		}
+	}
 
-		cpu.MAR = 10;
-		cpu.PC = 28;
+	// Called on the event thread once the simulation thread is done
+	private static void runFinished() {
+		refreshTimer.stop();
+		simulationThread = null;
 
-		String instruction;
-		while ((instruction = br.readLine()) != null) {
-			// Ignoring blank lines
-			if (instruction.trim().equals("")) {
-				continue;
-			}
+		if (stopRequested && !machine.isHalted()) {
+			machine.halt(true);
+		}
+		console.setRunning(false);
+		technicianConsole.setRunning(false);
 
-			// memory.write(cpu.MAR, instruction.trim());
-			l1cache.write(cpu.MAR, instruction.trim(), memory);
-			cpu.MAR++;
+		// Update UI display
+		machine.update();
+		if (machine.isHalted()) {
+			console.writeToOutput("Finished running program.");
+		} else {
+			console.writeToOutput("Program paused at PC " + machine.cpu.PC + ".");
 		}
+	}
+
+	// Called by the console class when the Load P1 button is clicked. This loads
+	// the program that is in our program 1 file and loads it into memory
+	public static void loadP1Clicked() throws IOException {
+		machine.reset();
+		
+		String programOneFileName = "Program_1.txt"; // Name of the file containing program 1
+
+		machine.load(ProgramImage.read(programOneFileName, 28));
 
 		// Update UI display
-		console.updateUI(cpu, memory, l1cache);
+		machine.update();
 		console.writeToOutput("P1 Loaded into memory.");
-
-		br.close();
 	}
 
 	// Called by the console class when the Load P2 button is clicked. This loads
 	// the program that is in our program 2 file and loads it into memory
 	public static void loadP2Clicked() throws IOException {
-		reset();
-
-		// Temporary for reading in characters from card reader to memory starting at
-		// location 1000
-		File inputFile = new File("Card_Reader.txt");
-		BufferedReader br = new BufferedReader(new FileReader(inputFile));
-
-		String instruction;
-		int memoryLocationToStoreChar = 159;
-
-		StringBuilder sentenceBuilder = new StringBuilder();
+		machine.reset();
 
-		while ((instruction = br.readLine()) != null) {
-			for (char c : instruction.toUpperCase().toCharArray()) {
-
-				// The user input characters are stored in memory location 2000-2047 so we do
-				// not want to run into this. We want spot 2000 to be left blank (to indicate
-				// the end of the input) so that is why
-				// we halt when we get to 1999.
-				if (memoryLocationToStoreChar >= 1999) {
-					console.writeToOutput("Input from Card Reader too long.");
-					console.haltConsole(true);
-					br.close();
-					return;
-				}
-
-				memory.write(memoryLocationToStoreChar,
-						String.format("%16s", Integer.toBinaryString(c)).replace(" ", "0"));
-				memoryLocationToStoreChar++;
-
-				sentenceBuilder.append(c);
-
-				if ((c == '.') || (c == '?') || (c == '!')) {
-					console.appendToConsolePrinter(sentenceBuilder.toString(), false);
-					sentenceBuilder = new StringBuilder();
-				}
-
-			}
+		if (!machine.loadCardReader(console.cardReaderFileName)) {
+			return;
 		}
 
-		br.close();
-
 		String programTwoFileName = "Program_2.txt"; // Name of the file containing program 1
 
-		// Java setup to be able to read file
-		inputFile = new File(programTwoFileName);
-		br = new BufferedReader(new FileReader(inputFile));
-
-		cpu.MAR = 10;
-		cpu.PC = 30;
-
-		// First nine memory spaces are blank
-		for (int i = 0; i < 9; i++) {
-			br.readLine();
-		}
-
-		while ((instruction = br.readLine()) != null) {
-			// Ignoring blank lines
-			if (instruction.trim().equals("")) {
-				continue;
-			}
-
-			memory.write(cpu.MAR, instruction.trim());
-			cpu.MAR++;
-		}
+		machine.load(ProgramImage.read(programTwoFileName, 30));
 
 		// Update UI display
-		console.updateUI(cpu, memory, l1cache);
+		machine.update();
 		console.writeToOutput("P2 Loaded into memory.");
-
-		br.close();
-
-	}
-
-	// Execute one word from memory
-	public static void executeOneStep() throws InterruptedException, FileNotFoundException {
-
-		cpu.MAR = cpu.PC;
-		cpu.MBR = l1cache.read(cpu.MAR, memory);
-		cpu.IR = cpu.MBR;
-
-		cpu.processInstruction(memory, l1cache);
-
-		cpu.PC++;
 	}
 
 	// Called by the console class when the deposit button is clicked
 	public static void depositButtonClicked(String value) {
 		// memory.write(cpu.MAR, value);
-		l1cache.write(cpu.MAR, value, memory);
+		machine.caches.write(machine.cpu.MAR, Word.parse(value), machine.memory);
 
 		// Update UI display
-		console.updateUI(cpu, memory, l1cache);
+		machine.update();
 		console.writeToOutput("Deposited one instruction.");
 	}
 
@@ -222,17 +201,17 @@ public abstract class Main {
 		console.writeToOutput("Changing PC value.");
 
 		// Convert entered value to decimal, but if equal to zero, reject input
-		int decValue = Integer.parseInt(value, 2);
+		int decValue = Word.parse(value);
 		if (decValue == 0) {
 			console.writeToOutput("Cannot set PC to zero.");
 			return;
 		}
 
 		// Else set PC to that value
-		cpu.PC = decValue;
+		machine.cpu.PC = decValue;
 
 		// Update UI display
-		console.updateUI(cpu, memory, l1cache);
+		machine.update();
 	}
 
 	// Called by the console class when the Change MAR button is clicked
@@ -240,87 +219,71 @@ public abstract class Main {
 		console.writeToOutput("Changing MAR Value.");
 
 		// Convert entered value to decimal
-		int decValue = Integer.parseInt(value, 2);
+		int decValue = Word.parse(value);
 
 		// Set MAR to that value (and as a result, MBR)
-		cpu.MAR = decValue;
-		cpu.MBR = l1cache.read(cpu.MAR, memory);
+		machine.cpu.MAR = decValue;
+		machine.cpu.MBR = machine.caches.read(machine.cpu.MAR, machine.memory);
 
 		// Update UI display
-		console.updateUI(cpu, memory, l1cache);
+		machine.update();
 	}
 
-	// Method to reset the backend components of the machine
-	private static void reset() {
-		memory = new Memory();
-		l1cache = new L1Cache();
-		rom = new ROM();
-		cpu = new CPU(console);
+	// Called by the technician console when the Record Trace button is toggled. Turning it on starts a new trace
+	public static void recordTraceClicked(boolean record) {
+		if (record) {
+			trace = new AddressTrace();
+			machine.caches.trace = trace;
+		} else {
+			machine.caches.trace = null;
+		}
+	}
+
+	// Called by the technician console when the Sweep Caches button is clicked. Replays the last trace recorded through
+	// every level 1 configuration of the default sweep and returns the table of results
+	public static String sweepCachesClicked() {
+		if (trace == null || trace.size() == 0) {
+			return "No trace recorded: turn on Record Trace and run a program first.";
+		}
 
-		console.getTextConsolePrinter().setText("");
-		console.getTextStatus().setText("");
+		CacheHierarchy caches = machine.caches;
+		CacheSweep sweep = new CacheSweep(trace, caches.l2 == null ? null : caches.l2.configuration, caches.inclusion);
+		List<CacheConfiguration> configurations = CacheSweep.defaultConfigurations();
+		long started = System.nanoTime();
+		List<CacheSweep.Result> results = sweep.run(configurations);
+		long elapsed = System.nanoTime() - started;
+
+		return String.format("%d accesses replayed through %d configurations in %.1f ms%n%n", trace.size(),
+				configurations.size(), elapsed / 1e6) + CacheSweep.formatTable(results);
 	}
 
 	// Method to handle when the user wants to deposit a value from the toggles
 	// directly into a GPR or Index register
-	public static void depositToRegisterButtonClicked(ActionEvent e) {
-		String buttonName = e.getActionCommand();
+	public static void depositToRegisterButtonClicked(String buttonName) {
 		String registerName = buttonName.split(" ")[2]; // For example the string 'Deposit to R0' we only want the R0
 
 		if (registerName.charAt(0) == 'R') {
 			// If the button is corresponding to a general purpose register
 			int registerNumber = registerName.charAt(1) - 48; // Subtracting 48 to convert ASCII code to actual number
 																// it represents
-			cpu.R[registerNumber] = console.readToggleInput();
+			machine.cpu.R[registerNumber] = Word.parse(console.readToggleInput());
 		} else if (registerName.charAt(0) == 'X') {
 			// If the button is corresponding to a index register
 			int registerNumber = registerName.charAt(1) - 48; // Subtracting 48 to convert ASCII code to actual number
 																// it represents
-			cpu.X[registerNumber] = console.readToggleInput();
+			machine.cpu.X[registerNumber] = Word.parse(console.readToggleInput());
 		} else if (registerName.charAt(0) == 'F') {
 			int registerNumber = registerName.charAt(2) - 48; // Subtracting 48 to convert ASCII code to actual number
 																// it represents
 
-			cpu.FPR[registerNumber] = console.readToggleInput();
+			machine.cpu.FPR[registerNumber] = Word.parse(console.readToggleInput());
 		} else {
-			console.getTextStatus().setText("ERROR: Depositing to register");
+			console.writeToOutput("ERROR: Depositing to register");
 			return;
 		}
 
 		// Update UI display
-		console.updateUI(cpu, memory, l1cache);
+		machine.update();
 		console.writeToOutput("Deposited to " + registerName);
 	}
-
-	public static void faultOccured(int id) {
-
-		// Store PC value in memory address 4 after converting it to 16 bit binary
-		String pcaddress = Integer.toString(cpu.PC, 2);
-		while (pcaddress.length() < 16) {
-			pcaddress = "0" + pcaddress;
-		}
-		l1cache.write(4, pcaddress, memory);
-
-		// Update MFR register with corresponding fault code and write to output
-		if (id == 0) {
-			cpu.MFR = "0001";
-			console.writeToOutput("Fault: Can't write to reserved Address.");
-		} else if (id == 1) {
-			cpu.MFR = "0010";
-		} else if (id == 2) {
-			cpu.MFR = "0100";
-			console.writeToOutput("Fault: Illegal Opcode.");
-		} else if (id == 3) {
-			cpu.MFR = "1000";
-			console.writeToOutput("Fault: Address out of bounds.");
-		}
-		console.writeToOutput("Fault occured at PC: " + cpu.PC + ", and MAR: " + cpu.MAR);
-		console.updateUI(cpu, memory, l1cache);
-
-		// Load PC with content of memory address 1
-		cpu.PC = Integer.parseInt(l1cache.read(1, memory), 2);
-
-		// Halt console
-		console.haltConsole(true);
-	}
 }
@@ -4,44 +4,57 @@ import java.util.Arrays;
 
 /* The Memory class is a representation of the computer's memory, as an array of fixed size, 
  * and contains the functions needed to READ or WRITE from or to memory.
+ * Words are kept as primitive 16 bit values, their binary string form is only built by the consoles when displaying them.
  */
 public class Memory {
 	
 	public int SIZE = 2048; //Contains the size of memory (i.e. array) - Constant value
 	public int STARTINGADDRESS; //Contains the starting address of where instructions or data can start getting loaded - Constant value
 	
-	public String[] addr = new String[SIZE]; //Variable simulating memory
+	public short[] addr = new short[SIZE]; //Variable simulating memory, each entry holding one 16 bit word
+	public DecodedInstructionCache decodedInstructions = new DecodedInstructionCache(SIZE); //Decoded form of the instructions fetched from memory
+	public FaultHandler faultHandler = FaultHandler.IGNORE; //Machine the faults are reported to
 	
 	//Class constructor
 	public Memory() {
 		initializeMemory();
 	}
 	
-	//Function used when the program needs to read from memory
-	public String read(int MAR) {
+	//Function used when the program needs to read from memory, returns the word as an unsigned 16 bit value
+	public int read(int MAR) {
 		// Check if address is referencing a reserved memory location, or is greater than maximum memory size, and if so, HALT
 		if (MAR >= SIZE) {
-			Main.faultOccured(3);
+			faultHandler.faultOccured(3);
+			return 0;
 		}
 		
-		return this.addr[MAR];
+		return this.addr[MAR] & Word.MASK;
 	}
 	
-	//Function used when the program needs to write from memory
-	public void write(int address, String value) {
+	//Function used when the program needs to write from memory, only the lowest 16 bits of value are stored.
+	//The decoded instruction of the address is only dropped when the word changes, as writebacks of words the caches
+	//already held (and decoded) store the same value again
+	public void write(int address, int value) {
 		// Check if address is referencing a reserved memory location, or is greater than maximum memory size, and if so, HALT
 		if (address == 0 || address == 1 || address == 3 || address == 5  ) {
-			Main.faultOccured(0);
+			faultHandler.faultOccured(0);
+			return;
 		} else if (address >= (SIZE) ) {
-			Main.faultOccured(3);
+			faultHandler.faultOccured(3);
+			return;
 		}
 				
-		this.addr[address] = value;
+		short word = (short) value;
+		if (this.addr[address] != word) {
+			this.addr[address] = word;
+			decodedInstructions.invalidate(address);
+		}
 	}
 	
 	//Function called to reset the memory (such as by the memory constructor or IPL buttons)
 	public void initializeMemory()	{
-		Arrays.fill(addr, "0000000000000000");
+		Arrays.fill(addr, (short) 0);
+		decodedInstructions.clear();
 	}
 	
 	// Getter for the size instance variable
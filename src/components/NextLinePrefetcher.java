@@ -0,0 +1,29 @@
+package components;
+
+/* Next line prefetching: a miss on a line, or the first read of a line that was prefetched, brings in the lines that
+ * follow it. Sequential code and data walks stay ahead of the program, at the cost of a useless line after each jump.
+ */
+public class NextLinePrefetcher implements Prefetcher {
+
+	private final int wordsPerLine;
+	private final int degree; // Lines prefetched after the line read
+
+	public NextLinePrefetcher(int wordsPerLine, int degree) {
+		this.wordsPerLine = wordsPerLine;
+		this.degree = degree;
+	}
+
+	public int accessed(int pc, int address, boolean miss, boolean firstUse, int[] prefetches) {
+		if (!miss && !firstUse) {
+			return 0;
+		}
+		int line = address / wordsPerLine;
+		for (int i = 0; i < degree; i++) {
+			prefetches[i] = (line + 1 + i) * wordsPerLine;
+		}
+		return degree;
+	}
+
+	public void reset() {
+	}
+}
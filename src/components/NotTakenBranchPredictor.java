@@ -0,0 +1,13 @@
+package components;
+
+/* Static not taken prediction: fetch always goes on with the next address, so every taken branch is mispredicted.
+ */
+public class NotTakenBranchPredictor implements BranchPredictor {
+
+	public boolean predict(int pc) {
+		return false;
+	}
+
+	public void update(int pc, boolean taken) {
+	}
+}
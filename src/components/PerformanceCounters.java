@@ -0,0 +1,129 @@
+package components;
+
+import java.util.stream.IntStream;
+
+/* The PerformanceCounters class counts what the machine does during a run: instructions retired per opcode, faults by
+ * MFR code, how hot each address is and how much of the code ran translated (see BlockTranslator), and the time spent
+ * running, from which the MIPS figure is derived. The caches count their own hits, misses, evictions and writebacks,
+ * the report below gathers both.
+ * The counters are plain long fields bumped by the thread running the machine, nothing is locked on the hot path.
+ */
+public class PerformanceCounters {
+
+	public long[] retiredPerOpcode = new long[64]; // Instructions executed, indexed by opcode
+	public long instructionsRetired; // Sum of the above
+	public long[] faults = new long[4]; // Faults taken, indexed by fault id (the bit set in MFR)
+
+	// Times the machine dispatched at each address: once per instruction run by the interpreter, once per run of a
+	// block for translated code. The machine translates a block once its start address reaches the threshold
+	public final long[] executionsAt;
+	public long blocksTranslated; // Blocks built by the translator
+	public long instructionsInBlocks; // Instructions retired while running translated blocks
+	public long vectorElements; // Elements worked on by the vector instructions (see VectorUnit)
+
+	private long runNanos; // Time spent in finished run segments
+	private long runStartedAt = -1; // System.nanoTime of the segment in progress, -1 when stopped
+
+	// Class constructor, memorySize being the number of addresses counted in executionsAt
+	public PerformanceCounters(int memorySize) {
+		executionsAt = new long[memorySize];
+	}
+
+	// Function called after each executed instruction
+	public void instructionRetired(int opcode) {
+		retiredPerOpcode[opcode]++;
+		instructionsRetired++;
+	}
+
+	// Function called before the machine executes at the given address, returns how many times it did so far
+	public long addressExecuted(int address) {
+		if (address < 0 || address >= executionsAt.length) {
+			return 0;
+		}
+		return ++executionsAt[address];
+	}
+
+	// Function called when a fault is taken, id being the one passed to Machine.faultOccured
+	public void faultOccured(int id) {
+		if (id >= 0 && id < faults.length) {
+			faults[id]++;
+		}
+	}
+
+	// Mark the beginning of a run segment (a run or a single step)
+	public void start() {
+		if (runStartedAt < 0) {
+			runStartedAt = System.nanoTime();
+		}
+	}
+
+	// Mark the end of a run segment
+	public void stop() {
+		if (runStartedAt >= 0) {
+			runNanos += System.nanoTime() - runStartedAt;
+			runStartedAt = -1;
+		}
+	}
+
+	// Time spent running so far, including the segment in progress
+	public long getRunNanos() {
+		return runStartedAt < 0 ? runNanos : runNanos + System.nanoTime() - runStartedAt;
+	}
+
+	// Millions of instructions per second of wall clock time spent running
+	public double getMIPS() {
+		long nanos = getRunNanos();
+		return nanos == 0 ? 0 : instructionsRetired * 1000.0 / nanos;
+	}
+
+	// Build a plain text report of the counters, and of the caches when given
+	public String report(CacheHierarchy caches) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Instructions retired: %d in %.3f ms (%.2f MIPS)%n", instructionsRetired,
+				getRunNanos() / 1e6, getMIPS()));
+
+		for (int opcode = 0; opcode < retiredPerOpcode.length; opcode++) {
+			if (retiredPerOpcode[opcode] != 0) {
+				sb.append(String.format("  %-6s %10d  %5.1f%%%n", CPU.mnemonic(opcode), retiredPerOpcode[opcode],
+						100.0 * retiredPerOpcode[opcode] / instructionsRetired));
+			}
+		}
+
+		String[] faultNames = { "Reserved location", "Illegal trap", "Illegal opcode", "Address out of bounds" };
+		sb.append("Faults:");
+		for (int id = 0; id < faults.length; id++) {
+			sb.append(id == 0 ? " " : ", ").append(faultNames[id]).append(" ").append(faults[id]);
+		}
+		sb.append(String.format("%n"));
+
+		sb.append(String.format("Translated: %d blocks, %.1f%% of instructions%n", blocksTranslated,
+				instructionsRetired == 0 ? 0 : 100.0 * instructionsInBlocks / instructionsRetired));
+		if (vectorElements != 0) {
+			sb.append(String.format("Vector elements: %d%n", vectorElements));
+		}
+		sb.append("Hottest addresses:");
+		for (int address : getHottestAddresses(HOTTEST_REPORTED)) {
+			sb.append(" ").append(address).append(" (").append(executionsAt[address]).append(")");
+		}
+		sb.append(String.format("%n"));
+
+		if (caches != null) {
+			for (Cache level : caches.getLevels()) {
+				sb.append(String.format("%s: hits %d, misses %d, evictions %d, writebacks %d, hit rate %.1f%%%n",
+						level.name, level.hits, level.misses, level.evictions, level.writebacks, level.getHitRate()));
+				sb.append(level.describeFills());
+			}
+		}
+		return sb.toString();
+	}
+
+	// Number of addresses listed as the hottest in the report
+	private static final int HOTTEST_REPORTED = 5;
+
+	// Function returning up to count addresses executed at, the most executed first
+	public int[] getHottestAddresses(int count) {
+		return IntStream.range(0, executionsAt.length).filter(address -> executionsAt[address] != 0).boxed()
+				.sorted((a, b) -> Long.compare(executionsAt[b], executionsAt[a])).limit(count)
+				.mapToInt(Integer::intValue).toArray();
+	}
+}
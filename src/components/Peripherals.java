@@ -0,0 +1,27 @@
+package components;
+
+/* The Peripherals interface is what the machine sees of the outside world: the keyboard and toggles it reads from, the
+ * printer it writes to and the card reader it does both with. The console window implements it for interactive use,
+ * the card reader being a file, and the batch runner implements it with scripted input and text output kept in memory
+ * so the machine can run without a display, and machines running at once share nothing.
+ */
+public interface Peripherals {
+
+	// Read a line typed on the console keyboard (device 0), null when nothing was entered
+	String readKeyboard();
+
+	// Read the toggles as a string of 16 bits (device 3)
+	String readToggleInput();
+
+	// Print text on the console printer, on the current line when inline is true or on a new line otherwise
+	void appendToConsolePrinter(String text, boolean inline);
+
+	// Read the first line of the card reader (device 2), null when it can't be read
+	String readCardReader();
+
+	// Replace what the card reader (device 2) holds with text
+	void writeCardReader(String text);
+
+	// Report an error raised by a device
+	void showError(String message);
+}
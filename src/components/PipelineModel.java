@@ -0,0 +1,284 @@
+package components;
+
+import java.util.Properties;
+
+/* The PipelineModel class times the program on a classic five stage pipeline (fetch, decode, execute, memory,
+ * writeback) issuing one instruction per cycle. The machine still executes each instruction with the CPU's own
+ * handlers and hands every retired instruction to the model, so the results of a run are the same with or without
+ * it; the model only works out when each instruction would have reached each stage and why it had to wait:
+ *  - data: a register (R, X, FPR or CC) it reads is not ready yet, given the forwarding paths of the pipeline
+ *  - load-use: the same, the register being loaded from memory by the instruction just before
+ *  - control: the instructions fetched after a mispredicted branch are flushed, branches being resolved in execute
+ *    (see BranchPredictionUnit)
+ *  - execute: the instruction takes more than one cycle in execute (see TimingModel.opcodeLatency)
+ *  - fetch and memory: the instruction or its data took more than one cycle to get from the caches (see TimingModel),
+ *    the elements of a vector instruction being worked on in memory
+ * It is enabled by the pipeline property and shaped by the pipeline.forwarding and pipeline.branch.penalty ones.
+ */
+public class PipelineModel {
+
+	// Forwarding paths of the pipeline
+	public enum Forwarding {
+		NONE, // Results are read from the register file once written back
+		ALU, // Results of execute are forwarded to the next instructions, loaded values wait for writeback
+		FULL // Results of execute and of memory are forwarded
+	}
+
+	// Bits of the registers in the sets of registers read and written by an instruction
+	static final int R0 = 0; // R0 to R3 are bits 0 to 3
+	static final int X0 = 4; // X0 to X3 are bits 4 to 7
+	static final int FPR0 = 8; // FPR0 and FPR1 are bits 8 and 9
+	static final int CC = 10;
+	private static final int REGISTERS = 11;
+
+	public final Forwarding forwarding;
+	public final int branchPenalty; // Cycles lost after a mispredicted branch
+	private final TimingModel timing;
+
+	// Cycle each register can be used by an instruction in execute, and whether it is being loaded from memory
+	private final long[] readyAt = new long[REGISTERS];
+	private final boolean[] loadedFromMemory = new boolean[REGISTERS];
+	private long lastExecute = 1; // Cycle the last instruction left execute (or memory when it stalled there)
+	private long pendingFlush; // Cycles lost by the next instruction after a mispredicted branch
+
+	public long instructions;
+	public long cycles; // Cycle the last instruction left writeback, plus one
+	public long dataStalls;
+	public long loadUseStalls;
+	public long controlStalls;
+	public long executeStalls;
+	public long fetchStalls;
+	public long memoryStalls;
+
+	public PipelineModel(Forwarding forwarding, int branchPenalty, TimingModel timing) {
+		this.forwarding = forwarding;
+		this.branchPenalty = branchPenalty;
+		this.timing = timing;
+	}
+
+	// Function building a model from the pipeline.forwarding (NONE, ALU or FULL) and pipeline.branch.penalty
+	// properties, or returning null when the pipeline property is not true
+	public static PipelineModel fromProperties(Properties properties, TimingModel timing) {
+		if (!"true".equalsIgnoreCase(properties.getProperty("pipeline"))) {
+			return null;
+		}
+		Forwarding forwarding = Forwarding
+				.valueOf(properties.getProperty("pipeline.forwarding", Forwarding.FULL.name()).toUpperCase());
+		int branchPenalty = Integer.parseInt(properties.getProperty("pipeline.branch.penalty", "2"));
+		return new PipelineModel(forwarding, branchPenalty, timing);
+	}
+
+	// Function called by the machine after each instruction, fetchCycles and dataCycles being the cycles spent getting
+	// it and its data from the caches, and mispredicted telling whether it is a branch fetch did not follow
+	public void retired(DecodedInstruction instruction, long fetchCycles, long dataCycles, boolean mispredicted) {
+		instructions++;
+
+		// The instruction enters execute the cycle after the previous one left it, unless held back
+		long execute = lastExecute + 1;
+
+		long fetchExtra = Math.max(0, fetchCycles - 1);
+		fetchStalls += fetchExtra;
+		execute += fetchExtra;
+
+		controlStalls += pendingFlush;
+		execute += pendingFlush;
+		pendingFlush = 0;
+
+		// Wait for the registers read
+		int sources = sources(instruction);
+		long ready = execute;
+		boolean waitingForLoad = false;
+		for (int register = 0; register < REGISTERS; register++) {
+			if ((sources & (1 << register)) != 0 && readyAt[register] > ready) {
+				ready = readyAt[register];
+				waitingForLoad = loadedFromMemory[register];
+			}
+		}
+		if (ready > execute) {
+			if (waitingForLoad) {
+				loadUseStalls += ready - execute;
+			} else {
+				dataStalls += ready - execute;
+			}
+			execute = ready;
+		}
+
+		// Execute and memory hold the instructions behind for as long as they take
+		int latency = Math.max(1, timing.opcodeLatency[instruction.opcode]);
+		executeStalls += latency - 1;
+		long executeEnd = execute + latency - 1;
+		long memoryExtra = Math.max(0, dataCycles - 1);
+		memoryStalls += memoryExtra;
+		long memoryEnd = executeEnd + 1 + memoryExtra;
+		lastExecute = executeEnd + memoryExtra;
+		cycles = memoryEnd + 2;
+
+		// Registers written become usable depending on the forwarding paths, a value written back being read in
+		// decode the same cycle
+		boolean load = isLoad(instruction.opcode);
+		long available;
+		if (forwarding == Forwarding.NONE || (forwarding == Forwarding.ALU && load)) {
+			available = memoryEnd + 2;
+		} else if (load) {
+			available = memoryEnd + 1;
+		} else {
+			available = executeEnd + 1;
+		}
+		int destinations = destinations(instruction);
+		for (int register = 0; register < REGISTERS; register++) {
+			if ((destinations & (1 << register)) != 0) {
+				readyAt[register] = available;
+				loadedFromMemory[register] = load;
+			}
+		}
+
+		if (mispredicted) {
+			pendingFlush = branchPenalty;
+		}
+	}
+
+	// Function returning the cycles per instruction of the run
+	public double getCPI() {
+		return instructions == 0 ? 0 : (double) cycles / instructions;
+	}
+
+	// Build a plain text report of the cycles and of the stalls by cause
+	public String report() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Pipeline (forwarding %s, branch penalty %d): %d cycles, CPI %.2f%n", forwarding,
+				branchPenalty, cycles, getCPI()));
+		sb.append(String.format("  Stalls: data %d, load-use %d, control %d, execute %d, fetch %d, memory %d%n",
+				dataStalls, loadUseStalls, controlStalls, executeStalls, fetchStalls, memoryStalls));
+		return sb.toString();
+	}
+
+	// Function telling whether the result of the instruction comes from memory rather than from execute
+	static boolean isLoad(int opcode) {
+		switch (opcode) {
+		case 0b000001: // LDR
+		case 0b000100: // AMR
+		case 0b000101: // SMR
+		case 0b100001: // LDX
+		case 0b011011: // FADD
+		case 0b011100: // FSUB
+		case 0b011111: // CNVRT
+		case 0b101000: // LDFR
+		case 0b101011: // VDOT
+		case 0b101100: // FMUL
+		case 0b101101: // FDIV
+		case 0b101110: // FCMP
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	// Helper function returning the bit of the index register used to compute the effective address, if any
+	private static int index(DecodedInstruction instruction) {
+		return instruction.IX == 0 ? 0 : 1 << (X0 + instruction.IX);
+	}
+
+	// Function returning the set of registers read by the instruction
+	static int sources(DecodedInstruction instruction) {
+		int gpr = 1 << (R0 + instruction.GPR);
+		int fpr = 1 << (FPR0 + (instruction.GPR & 1));
+		switch (instruction.opcode) {
+		case 0b000001: // LDR
+		case 0b001011: // JMA
+		case 0b001100: // JSR
+		case 0b101000: // LDFR
+			return index(instruction);
+		case 0b000010: // STR
+		case 0b000100: // AMR
+		case 0b000101: // SMR
+		case 0b001000: // JZ
+		case 0b001001: // JNE
+		case 0b001110: // SOB
+		case 0b001111: // JGE
+		case 0b011111: // CNVRT
+			return gpr | index(instruction);
+		case 0b000110: // AIR
+		case 0b000111: // SIR
+		case 0b010101: // NOT
+		case 0b011001: // SRC
+		case 0b011010: // RRC
+		case 0b110010: // OUT
+			return gpr;
+		case 0b001010: // JCC
+			return (1 << CC) | index(instruction);
+		case 0b001101: // RFS
+			return 1 << (R0 + 3);
+		case 0b010000: // MLT
+		case 0b010001: // DVD
+		case 0b010010: // TRR
+		case 0b010011: // AND
+		case 0b010100: // ORR
+			return gpr | (1 << (R0 + instruction.IX));
+		case 0b100010: // STX
+			return 1 << (X0 + instruction.IX);
+		case 0b011011: // FADD
+		case 0b011100: // FSUB
+		case 0b101100: // FMUL
+		case 0b101101: // FDIV
+		case 0b101110: // FCMP
+		case 0b011101: // VADD
+		case 0b110000: // VSUB
+		case 0b101010: // VMUL
+		case 0b101011: // VDOT
+		case 0b101001: // STFR
+			return fpr | index(instruction);
+		default:
+			return 0;
+		}
+	}
+
+	// Function returning the set of registers written by the instruction
+	static int destinations(DecodedInstruction instruction) {
+		int gpr = 1 << (R0 + instruction.GPR);
+		int fpr = 1 << (FPR0 + (instruction.GPR & 1));
+		switch (instruction.opcode) {
+		case 0b000001: // LDR
+		case 0b000011: // LDA
+		case 0b001110: // SOB
+		case 0b010011: // AND
+		case 0b010100: // ORR
+		case 0b010101: // NOT
+		case 0b011001: // SRC
+		case 0b011010: // RRC
+		case 0b110001: // IN
+			return gpr;
+		case 0b000100: // AMR
+		case 0b000101: // SMR
+		case 0b000110: // AIR
+		case 0b000111: // SIR
+			return gpr | (1 << CC);
+		case 0b001100: // JSR
+			return 1 << (R0 + 3);
+		case 0b101011: // VDOT
+			return gpr | (1 << CC);
+		case 0b001101: // RFS
+			return 1 << R0;
+		case 0b010000: // MLT
+			return gpr | (instruction.GPR < 3 ? 1 << (R0 + instruction.GPR + 1) : 0);
+		case 0b010001: // DVD
+			return gpr | (instruction.GPR < 3 ? 1 << (R0 + instruction.GPR + 1) : 0) | (1 << CC);
+		case 0b010010: // TRR
+			return 1 << CC;
+		case 0b100001: // LDX
+			return 1 << (X0 + instruction.IX);
+		case 0b011011: // FADD
+		case 0b011100: // FSUB
+		case 0b101100: // FMUL
+		case 0b101101: // FDIV
+			return fpr | (1 << CC);
+		case 0b101110: // FCMP
+			return 1 << CC;
+		case 0b011111: // CNVRT
+			return gpr | (1 << FPR0) | (1 << CC);
+		case 0b101000: // LDFR
+			return fpr;
+		default:
+			return 0;
+		}
+	}
+}
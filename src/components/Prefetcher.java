@@ -0,0 +1,38 @@
+package components;
+
+/* The Prefetcher interface is implemented by the models guessing which lines a program is about to read, so that a
+ * cache can bring them in before they are asked for. The cache tells its prefetcher about every read it serves, and
+ * brings in the lines the prefetcher returns that it does not hold yet (see Cache.read).
+ * Addresses are word addresses, lines being WORDSPERLINE words long.
+ */
+public interface Prefetcher {
+
+	// The available prefetchers, chosen through the cache configuration
+	enum Type {
+		NONE, NEXT_LINE, STRIDE, STREAM
+	}
+
+	// Called on each read of the cache by the instruction at the given address. miss tells whether the word had to be
+	// fetched, firstUse whether it is the first read of a line brought in by a prefetch. The addresses of the lines to
+	// prefetch are written in prefetches (which holds as many as the degree of the prefetcher), their number is returned
+	int accessed(int pc, int address, boolean miss, boolean firstUse, int[] prefetches);
+
+	// Forget all the history (used when the cache is cleared)
+	void reset();
+
+	// Function creating the prefetcher of the given type for a cache with the given line size, prefetching up to degree
+	// lines ahead. Returns null for NONE
+	static Prefetcher create(Type type, int wordsPerLine, int degree) {
+		switch (type) {
+		case NEXT_LINE:
+			return new NextLinePrefetcher(wordsPerLine, degree);
+		case STRIDE:
+			return new StridePrefetcher(degree);
+		case STREAM:
+			return new StreamPrefetcher(wordsPerLine, degree);
+		case NONE:
+		default:
+			return null;
+		}
+	}
+}
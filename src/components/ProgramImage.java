@@ -0,0 +1,209 @@
+package components;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/* The ProgramImage class is a program ready to be loaded into a machine: the blocks of words to place in memory
+ * (segments), the address execution starts at and the addresses of the labels of the program, when known (symbols).
+ * An image never changes once built, so a single one can be loaded into any number of machines, including machines
+ * running on other threads.
+ * Images are read from the text format of Program_1.txt and Program_2.txt, assembled from source (see Assembler), or
+ * from image files, a binary format read by mapping the file into memory. All the numbers of an image file are big
+ * endian 16 bit words:
+ *   magic (2 words, see MAGIC), version, entry PC, number of segments, number of symbols
+ *   each segment: origin, length, then its words
+ *   each symbol: address, length of its name in bytes, then the name in UTF-8, padded with a zero byte to a whole word
+ */
+public final class ProgramImage {
+
+	// A block of consecutive words loaded at origin
+	public static final class Segment {
+		public final int origin;
+		private final short[] words;
+
+		public Segment(int origin, short[] words) {
+			this(words.clone(), origin);
+		}
+
+		// Constructor keeping the array of words, which nothing else may hold
+		private Segment(short[] words, int origin) {
+			if (origin < 0 || origin + words.length > 2048) {
+				throw new IllegalArgumentException(
+						"Segment of " + words.length + " words at " + origin + " does not fit in memory");
+			}
+			this.origin = origin;
+			this.words = words;
+		}
+
+		public int length() {
+			return words.length;
+		}
+
+		public int wordAt(int index) {
+			return words[index] & Word.MASK;
+		}
+	}
+
+	static final int MAGIC = 0x43534D49; // "CSMI" at the start of every image file
+	static final int VERSION = 1;
+
+	public final int entryPC; // Address of the first instruction executed
+	public final List<Segment> segments;
+	public final Map<String, Integer> symbols; // Address of each label, in the order they were defined
+
+	public ProgramImage(int entryPC, List<Segment> segments) {
+		this(entryPC, segments, Collections.emptyMap());
+	}
+
+	public ProgramImage(int entryPC, List<Segment> segments, Map<String, Integer> symbols) {
+		this.entryPC = entryPC;
+		this.segments = Collections.unmodifiableList(new ArrayList<>(segments));
+		this.symbols = Collections.unmodifiableMap(new LinkedHashMap<>(symbols));
+	}
+
+	// Function returning the same image starting at another address
+	public ProgramImage withEntryPC(int entryPC) {
+		return entryPC == this.entryPC ? this : new ProgramImage(entryPC, segments, symbols);
+	}
+
+	// Function copying the segments into memory. The memory is expected to be freshly initialized (IPL), so the words
+	// are copied without going through the caches
+	public void loadInto(Memory memory) {
+		for (Segment segment : segments) {
+			System.arraycopy(segment.words, 0, memory.addr, segment.origin, segment.words.length);
+		}
+		memory.decodedInstructions.clear();
+	}
+
+	// Function reading a program file in the layout of Program_1.txt and Program_2.txt: nine blank lines, then one
+	// binary word per line loaded from location 10 on (blank lines being skipped)
+	public static ProgramImage fromProgramFile(String fileName, int entryPC) throws IOException {
+		BufferedReader br = new BufferedReader(new FileReader(new File(fileName)));
+		List<Short> words = new ArrayList<>();
+		try {
+			// First nine memory spaces are blank
+			for (int i = 0; i < 9; i++) {
+				br.readLine();
+			}
+
+			String instruction;
+			while ((instruction = br.readLine()) != null) {
+				// Ignoring blank lines
+				if (instruction.trim().equals("")) {
+					continue;
+				}
+				words.add((short) Word.parse(instruction));
+			}
+		} finally {
+			br.close();
+		}
+
+		short[] segment = new short[words.size()];
+		for (int i = 0; i < segment.length; i++) {
+			segment[i] = words.get(i);
+		}
+		return new ProgramImage(entryPC, Collections.singletonList(new Segment(segment, 10)));
+	}
+
+	// Function reading a program from an image file, from assembly source (see Assembler) or from a file in the text
+	// format (starting at entryPC), telling them apart by their content
+	public static ProgramImage read(String fileName, int entryPC) throws IOException {
+		if (isImageFile(fileName)) {
+			return fromImageFile(fileName);
+		}
+		List<String> lines = Files.readAllLines(Paths.get(fileName), StandardCharsets.UTF_8);
+		return Assembler.isSource(lines) ? new Assembler(lines).image : fromProgramFile(fileName, entryPC);
+	}
+
+	// Function telling whether a file starts with the magic number of image files
+	public static boolean isImageFile(String fileName) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			return channel.size() >= 4 && channel.map(FileChannel.MapMode.READ_ONLY, 0, 4).getInt() == MAGIC;
+		}
+	}
+
+	// Function reading an image file (see the class comment). The file is mapped into memory and the words of each
+	// segment are copied out of it at once
+	public static ProgramImage fromImageFile(String fileName) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < 4 || buffer.getInt() != MAGIC) {
+				throw new IOException(fileName + " is not a program image");
+			}
+			int version = buffer.getShort() & Word.MASK;
+			if (version != VERSION) {
+				throw new IOException(fileName + " is a program image of unknown version " + version);
+			}
+			int entryPC = buffer.getShort() & Word.MASK;
+			int segmentCount = buffer.getShort() & Word.MASK;
+			int symbolCount = buffer.getShort() & Word.MASK;
+
+			List<Segment> segments = new ArrayList<>(segmentCount);
+			for (int i = 0; i < segmentCount; i++) {
+				int origin = buffer.getShort() & Word.MASK;
+				short[] words = new short[buffer.getShort() & Word.MASK];
+				buffer.asShortBuffer().get(words);
+				buffer.position(buffer.position() + 2 * words.length);
+				segments.add(new Segment(words, origin));
+			}
+
+			Map<String, Integer> symbols = new LinkedHashMap<>();
+			for (int i = 0; i < symbolCount; i++) {
+				int address = buffer.getShort() & Word.MASK;
+				byte[] name = new byte[buffer.getShort() & Word.MASK];
+				buffer.get(name);
+				if (name.length % 2 != 0) {
+					buffer.get();
+				}
+				symbols.put(new String(name, StandardCharsets.UTF_8), address);
+			}
+			return new ProgramImage(entryPC, segments, symbols);
+		} catch (BufferUnderflowException e) {
+			throw new IOException(fileName + " is a truncated program image");
+		}
+	}
+
+	// Function writing the image to an image file (see the class comment)
+	public void writeImageFile(String fileName) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeShort(entryPC);
+			out.writeShort(segments.size());
+			out.writeShort(symbols.size());
+			for (Segment segment : segments) {
+				out.writeShort(segment.origin);
+				out.writeShort(segment.words.length);
+				for (short word : segment.words) {
+					out.writeShort(word);
+				}
+			}
+			for (Map.Entry<String, Integer> symbol : symbols.entrySet()) {
+				byte[] name = symbol.getKey().getBytes(StandardCharsets.UTF_8);
+				out.writeShort(symbol.getValue());
+				out.writeShort(name.length);
+				out.write(name);
+				if (name.length % 2 != 0) {
+					out.writeByte(0);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package components;
+
+/* Random replacement: the victim is any way of the set. A fixed seed xorshift generator is used so that runs can be
+ * reproduced.
+ */
+public class RandomReplacementPolicy implements ReplacementPolicy {
+
+	private static final long SEED = 0x2545F4914F6CDD1DL;
+
+	private final int ways;
+	private long state = SEED;
+
+	public RandomReplacementPolicy(int ways) {
+		this.ways = ways;
+	}
+
+	public void lineFilled(int set, int way) {
+	}
+
+	public void lineAccessed(int set, int way) {
+	}
+
+	public int victim(int set) {
+		state ^= state << 13;
+		state ^= state >>> 7;
+		state ^= state << 17;
+		return (int) Long.remainderUnsigned(state, ways);
+	}
+
+	public void reset() {
+		state = SEED;
+	}
+}
@@ -0,0 +1,40 @@
+package components;
+
+/* The ReplacementPolicy interface is implemented by the policies a cache can use to choose which line of a full set
+ * gets replaced. Lines are identified by their set and their way (position within the set). The cache tells the policy
+ * whenever a line is filled or hit, and asks it for a victim when a set has no free way left.
+ */
+public interface ReplacementPolicy {
+
+	// The available policies, chosen through the cache configuration
+	enum Type {
+		FIFO, LRU, PLRU, RANDOM
+	}
+
+	// Called when a new block is placed in the given way of the set
+	void lineFilled(int set, int way);
+
+	// Called when the block held in the given way of the set is read or written
+	void lineAccessed(int set, int way);
+
+	// Returns the way of the (full) set whose block should be replaced
+	int victim(int set);
+
+	// Forget all the history (used when the cache is cleared)
+	void reset();
+
+	// Function creating the policy of the given type for a cache with the given number of sets and ways
+	static ReplacementPolicy create(Type type, int numberOfSets, int ways) {
+		switch (type) {
+		case LRU:
+			return new LRUReplacementPolicy(numberOfSets, ways);
+		case PLRU:
+			return new TreePLRUReplacementPolicy(numberOfSets, ways);
+		case RANDOM:
+			return new RandomReplacementPolicy(ways);
+		case FIFO:
+		default:
+			return new FIFOReplacementPolicy(numberOfSets, ways);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package components;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/* The ScriptedPeripherals class stands in for the console when a machine runs without a display: keyboard lines,
+ * toggles and card reader lines are given up front, and the printer and what the program writes to the card reader
+ * are kept as text, nothing being read from or written to files. Status messages of the machine are echoed to
+ * standard error unless quiet.
+ */
+class ScriptedPeripherals implements Peripherals, MachineObserver {
+	final Deque<String> keyboard = new ArrayDeque<>();
+	String toggles = "0000000000000000";
+	final StringBuilder printer = new StringBuilder();
+	String cardReader; // First line of the card reader, null when empty
+	boolean cardReaderWritten; // Whether OUT to device 2 replaced the card reader
+	boolean quiet;
+
+	@Override
+	public String readKeyboard() {
+		return keyboard.pollFirst();
+	}
+
+	@Override
+	public String readToggleInput() {
+		return toggles;
+	}
+
+	// Same layout as the console printer: text is trimmed, and a line started on a printer holding text is ended
+	@Override
+	public void appendToConsolePrinter(String text, boolean inline) {
+		if (printer.length() == 0) {
+			printer.append(text.trim());
+		} else if (inline) {
+			printer.append(text.trim());
+		} else {
+			if (printer.charAt(printer.length() - 1) != '\n') {
+				printer.append('\n');
+			}
+			printer.append(text.trim()).append('\n');
+		}
+	}
+
+	@Override
+	public String readCardReader() {
+		return cardReader;
+	}
+
+	@Override
+	public void writeCardReader(String text) {
+		cardReader = text;
+		cardReaderWritten = true;
+	}
+
+	@Override
+	public void showError(String message) {
+		System.err.println(message);
+	}
+
+	@Override
+	public void machineReset(Machine machine) {
+		printer.setLength(0);
+	}
+
+	@Override
+	public void statusMessage(Machine machine, String text) {
+		if (!quiet) {
+			System.err.println(text);
+		}
+	}
+}
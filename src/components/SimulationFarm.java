@@ -0,0 +1,169 @@
+package components;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/* The SimulationFarm class runs many independent jobs, each on a machine of its own, over a work-stealing pool sized to
+ * the cores of the host. Jobs share nothing but their ProgramImage, which is read-only, so throughput grows with the
+ * number of cores: the card reader of each job is kept in memory, what the program writes to it being reported with
+ * the job. Each job reports its printer output, card reader, final registers and counters.
+ */
+public class SimulationFarm implements AutoCloseable {
+
+	// Exit codes of a job, also used as the exit codes of the batch runner
+	public static final int HALTED = 0;
+	public static final int FAULTED = 1;
+	public static final int BUDGET_EXHAUSTED = 2;
+	public static final int DEVICE_ERROR = 3;
+	public static final int LOAD_ERROR = 64;
+
+	// One program run: the image to load and the input it is given
+	public static class Job {
+		public final String name;
+		public final ProgramImage image;
+		public final List<String> keyboard; // Lines typed for IN from device 0, in order
+		public final String toggles; // Toggles read by IN from device 3, 16 bits
+		// Lines loaded at 159 as Load Program 2 does, the first one also being read by IN from device 2, null for none
+		public final List<String> cardReader;
+		public final long maxInstructions;
+
+		public Job(String name, ProgramImage image, List<String> keyboard, long maxInstructions) {
+			this(name, image, keyboard, "0000000000000000", null, maxInstructions);
+		}
+
+		public Job(String name, ProgramImage image, List<String> keyboard, String toggles, List<String> cardReader,
+				long maxInstructions) {
+			this.name = name;
+			this.image = image;
+			this.keyboard = Collections.unmodifiableList(new ArrayList<>(keyboard));
+			this.toggles = toggles;
+			this.cardReader = cardReader == null ? null : Collections.unmodifiableList(new ArrayList<>(cardReader));
+			this.maxInstructions = maxInstructions;
+		}
+	}
+
+	// What a job left behind
+	public static class Result {
+		public final String name;
+		public final int exitCode; // HALTED, FAULTED, BUDGET_EXHAUSTED, DEVICE_ERROR or LOAD_ERROR
+		public final String outcome; // Exit code as a sentence
+		public final String printer; // Printer output, each line ended
+		public final String cardReader; // What OUT to device 2 left in the card reader, null when it was not written
+		public final int PC, CC, MFR;
+		public final int[] R, X, FPR;
+		public final PerformanceCounters counters;
+		public final String statistics; // Report of the counters, caches and cycles
+
+		Result(Job job, Machine machine, ScriptedPeripherals peripherals, int exitCode, String outcome) {
+			CPU cpu = machine.cpu;
+			this.name = job.name;
+			this.exitCode = exitCode;
+			this.outcome = outcome;
+
+			// End the last printed line so the output composes with other files
+			StringBuilder printer = peripherals.printer;
+			if (printer.length() != 0 && printer.charAt(printer.length() - 1) != '\n') {
+				printer.append('\n');
+			}
+			this.printer = printer.toString();
+			this.cardReader = peripherals.cardReaderWritten ? peripherals.cardReader : null;
+
+			this.PC = cpu.PC;
+			this.CC = cpu.CC;
+			this.MFR = cpu.MFR;
+			this.R = Arrays.copyOf(cpu.R, cpu.R.length);
+			this.X = Arrays.copyOf(cpu.X, cpu.X.length);
+			this.FPR = Arrays.copyOf(cpu.FPR, cpu.FPR.length);
+			this.counters = machine.counters;
+			this.statistics = machine.report();
+		}
+	}
+
+	private final ForkJoinPool pool;
+	private final Properties configuration;
+
+	// Class constructor, one worker per core and caches shaped by the cache.* system properties
+	public SimulationFarm() {
+		this(Runtime.getRuntime().availableProcessors(), System.getProperties());
+	}
+
+	// Class constructor, configuration holding the cache.* properties of the machines (see CacheHierarchy)
+	public SimulationFarm(int parallelism, Properties configuration) {
+		this.pool = new ForkJoinPool(parallelism);
+		this.configuration = configuration;
+	}
+
+	// Function running every job and returning their results in the same order
+	public List<Result> runAll(List<Job> jobs) throws InterruptedException {
+		List<Callable<Result>> tasks = new ArrayList<>(jobs.size());
+		for (Job job : jobs) {
+			tasks.add(() -> run(job, configuration));
+		}
+
+		List<Result> results = new ArrayList<>(jobs.size());
+		for (Future<Result> future : pool.invokeAll(tasks)) {
+			try {
+				results.add(future.get());
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Job failed", e.getCause());
+			}
+		}
+		return results;
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	// Function running a job on the calling thread, on a new machine with caches shaped by configuration
+	public static Result run(Job job, Properties configuration) {
+		return run(job, configuration, true);
+	}
+
+	// Same as above, the status messages of the machine being echoed to standard error unless quiet
+	static Result run(Job job, Properties configuration, boolean quiet) {
+		ScriptedPeripherals peripherals = new ScriptedPeripherals();
+		peripherals.quiet = quiet;
+		peripherals.keyboard.addAll(job.keyboard);
+		peripherals.toggles = job.toggles;
+		if (job.cardReader != null && !job.cardReader.isEmpty()) {
+			peripherals.cardReader = job.cardReader.get(0);
+		}
+
+		// Build the machine and load the ROM, then the card reader and program on top of it
+		Machine machine = new Machine(peripherals, configuration);
+		machine.addObserver(peripherals);
+		machine.ipl();
+		if (job.cardReader != null && !machine.loadCardReaderLines(job.cardReader)) {
+			return new Result(job, machine, peripherals, LOAD_ERROR, "Input from Card Reader too long");
+		}
+		machine.load(job.image);
+
+		// Run until the machine halts or the budget runs out
+		try {
+			machine.run(job.maxInstructions);
+		} catch (InterruptedException | FileNotFoundException e) {
+			peripherals.showError("Run stopped: " + e.getMessage());
+		}
+
+		if (!machine.isHalted()) {
+			return new Result(job, machine, peripherals, BUDGET_EXHAUSTED,
+					"Instruction budget of " + job.maxInstructions + " exhausted at PC " + machine.cpu.PC);
+		} else if (machine.getDeviceError() != null) {
+			return new Result(job, machine, peripherals, DEVICE_ERROR, "Device error: " + machine.getDeviceError());
+		} else if (machine.cpu.MFR != 0) {
+			return new Result(job, machine, peripherals, FAULTED,
+					"Fault " + machine.cpu.MFR + " at MAR " + machine.cpu.MAR);
+		}
+		return new Result(job, machine, peripherals, HALTED, "Halted");
+	}
+}
@@ -0,0 +1,80 @@
+package components;
+
+import java.lang.invoke.VarHandle;
+
+/* The SnapshotPublisher class lets other threads (consoles, metrics exporters, debuggers) read a consistent copy of a
+ * machine's registers and memory while the machine keeps running, without locks. It is a sequence lock: the thread
+ * running the machine makes the sequence odd, copies its state into this object between two instructions, then makes
+ * the sequence even again, which costs two volatile writes per publish. A reader copies the state out and retries when
+ * the sequence was odd or changed meanwhile, so it never sees a torn state and never holds the machine up.
+ */
+public final class SnapshotPublisher {
+
+	private volatile long sequence; // Odd while a publish is in progress
+
+	// Published state, only written by the thread running the machine between the two writes of sequence
+	int PC, CC, MAR, MBR, IR, MFR;
+	final int[] R = new int[4];
+	final int[] X = new int[4];
+	final int[] FPR = new int[2];
+	int opcode, GPR, IX, I, address;
+	final short[] memory;
+	long instructionsRetired;
+	long runNanos;
+
+	public SnapshotPublisher(int memorySize) {
+		memory = new short[memorySize];
+	}
+
+	// Function copying the state of the machine, to be called by the thread running it, between two instructions
+	public void publish(Machine machine) {
+		long next = sequence + 1;
+		sequence = next;
+		// The copies below may not be seen by readers before the sequence turned odd
+		VarHandle.storeStoreFence();
+
+		CPU cpu = machine.cpu;
+		PC = cpu.PC;
+		CC = cpu.CC;
+		MAR = cpu.MAR;
+		MBR = cpu.MBR;
+		IR = cpu.IR;
+		MFR = cpu.MFR;
+		System.arraycopy(cpu.R, 0, R, 0, R.length);
+		System.arraycopy(cpu.X, 0, X, 0, X.length);
+		System.arraycopy(cpu.FPR, 0, FPR, 0, FPR.length);
+		opcode = cpu.opcode;
+		GPR = cpu.GPR;
+		IX = cpu.IX;
+		I = cpu.I;
+		address = cpu.address;
+		System.arraycopy(machine.memory.addr, 0, memory, 0, memory.length);
+		instructionsRetired = machine.counters.instructionsRetired;
+		runNanos = machine.counters.getRunNanos();
+
+		sequence = next + 1;
+	}
+
+	// Function returning a consistent copy of the last state published, from any thread. Before the first publish it
+	// holds a cleared machine
+	public MachineSnapshot read() {
+		while (true) {
+			long before = sequence;
+			if ((before & 1) != 0) {
+				Thread.onSpinWait();
+				continue;
+			}
+			MachineSnapshot snapshot = new MachineSnapshot(this, before >>> 1);
+			// The copies above must be done before the sequence is read again
+			VarHandle.loadLoadFence();
+			if (sequence == before) {
+				return snapshot;
+			}
+		}
+	}
+
+	// Number of publishes done so far, a reader can skip its work while it has not changed
+	public long getVersion() {
+		return sequence >>> 1;
+	}
+}
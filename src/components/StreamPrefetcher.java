@@ -0,0 +1,64 @@
+package components;
+
+import java.util.Arrays;
+
+/* Stream prefetching: a few streams follow the sequential walks the program makes through memory. A miss that is not
+ * the continuation of a stream starts a new one in place of the least recently used stream, and once the program reads
+ * the line the stream expects next, the stream runs degree lines ahead of it. Unlike next line prefetching, an
+ * isolated miss prefetches nothing, and several walks (ex: the two vectors of a VADD) are followed at the same time.
+ * The lines are prefetched into the cache itself rather than into buffers of their own.
+ */
+public class StreamPrefetcher implements Prefetcher {
+
+	static final int STREAMS = 4; // Walks followed at once
+
+	private final int wordsPerLine;
+	private final int degree; // Lines prefetched ahead of the line read
+	private final int[] expectedLine = new int[STREAMS]; // Line each stream expects to be read next, -1 when free
+	private final long[] lastUse = new long[STREAMS];
+	private long clock;
+
+	public StreamPrefetcher(int wordsPerLine, int degree) {
+		this.wordsPerLine = wordsPerLine;
+		this.degree = degree;
+		reset();
+	}
+
+	public int accessed(int pc, int address, boolean miss, boolean firstUse, int[] prefetches) {
+		if (!miss && !firstUse) {
+			return 0;
+		}
+		int line = address / wordsPerLine;
+
+		// Continue the stream this read is in, the program possibly being ahead of what it expected
+		for (int stream = 0; stream < STREAMS; stream++) {
+			if (expectedLine[stream] >= 0 && line >= expectedLine[stream] && line <= expectedLine[stream] + degree) {
+				expectedLine[stream] = line + 1;
+				lastUse[stream] = ++clock;
+				for (int i = 0; i < degree; i++) {
+					prefetches[i] = (line + 1 + i) * wordsPerLine;
+				}
+				return degree;
+			}
+		}
+
+		// Otherwise a miss starts a new stream
+		if (miss) {
+			int oldest = 0;
+			for (int stream = 1; stream < STREAMS; stream++) {
+				if (lastUse[stream] < lastUse[oldest]) {
+					oldest = stream;
+				}
+			}
+			expectedLine[oldest] = line + 1;
+			lastUse[oldest] = ++clock;
+		}
+		return 0;
+	}
+
+	public void reset() {
+		Arrays.fill(expectedLine, -1);
+		Arrays.fill(lastUse, 0);
+		clock = 0;
+	}
+}
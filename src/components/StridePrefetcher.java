@@ -0,0 +1,62 @@
+package components;
+
+import java.util.Arrays;
+
+/* Stride prefetching: a table indexed by the low bits of the address of the instruction reading keeps the last address
+ * each instruction read and the distance between its last two reads. Once the same stride was seen twice in a row, the
+ * addresses the next reads of the instruction will be at are prefetched. An instruction reading the same word again
+ * (stride 0) is left alone.
+ */
+public class StridePrefetcher implements Prefetcher {
+
+	static final int ENTRIES = 64; // Instructions tracked at once
+	private static final int CONFIRMATIONS = 1; // Times a stride has to repeat before it is prefetched
+
+	private final int degree; // Strides prefetched ahead of the read
+	private final int[] pcOf = new int[ENTRIES]; // Instruction tracked by each entry, -1 when free
+	private final int[] lastAddress = new int[ENTRIES];
+	private final int[] stride = new int[ENTRIES];
+	private final int[] confidence = new int[ENTRIES]; // Times the stride repeated, up to CONFIRMATIONS
+
+	public StridePrefetcher(int degree) {
+		this.degree = degree;
+		reset();
+	}
+
+	public int accessed(int pc, int address, boolean miss, boolean firstUse, int[] prefetches) {
+		int entry = pc & (ENTRIES - 1);
+		if (pcOf[entry] != pc) {
+			pcOf[entry] = pc;
+			lastAddress[entry] = address;
+			stride[entry] = 0;
+			confidence[entry] = 0;
+			return 0;
+		}
+
+		int distance = address - lastAddress[entry];
+		lastAddress[entry] = address;
+		if (distance == 0) {
+			return 0;
+		}
+		if (distance == stride[entry]) {
+			confidence[entry] = Math.min(confidence[entry] + 1, CONFIRMATIONS);
+		} else {
+			stride[entry] = distance;
+			confidence[entry] = 0;
+		}
+		if (confidence[entry] < CONFIRMATIONS) {
+			return 0;
+		}
+		for (int i = 0; i < degree; i++) {
+			prefetches[i] = address + (i + 1) * distance;
+		}
+		return degree;
+	}
+
+	public void reset() {
+		Arrays.fill(pcOf, -1);
+		Arrays.fill(lastAddress, 0);
+		Arrays.fill(stride, 0);
+		Arrays.fill(confidence, 0);
+	}
+}
@@ -0,0 +1,143 @@
+package components;
+
+import java.util.Properties;
+
+/* The TimingModel class turns what a run did into the cycles it would take on hardware: every instruction costs the
+ * latency of its opcode, every access to a cache level costs the access time of that level, every miss going past
+ * the last level to read memory costs the memory access time, and every dirty word written back costs the writeback
+ * time of its level. A write missing only allocates its line, so it costs no memory access. Every instruction fetch is an access to the level 1 instruction cache, the decoded instruction cache only
+ * saving the decoding, and each element worked on by a vector instruction costs the vector element time on top of the
+ * instruction's latency.
+ * Words brought in by whole line fills and prefetches are taken to arrive alongside the accesses that caused them, so
+ * they cost nothing of their own.
+ * The cycles are computed from the counters kept by the machine and its caches once the run is over, so the model
+ * costs nothing while the program runs.
+ * All the latencies can be set through timing.* properties (see fromProperties).
+ */
+public class TimingModel {
+
+	public final int[] opcodeLatency = new int[64]; // Execution cycles of each opcode, memory accesses not included
+	public int l1iAccess = 1; // Cycles of an access to the level 1 instruction cache
+	public int l1dAccess = 1; // Cycles of an access to the level 1 data cache
+	public int l2Access = 8; // Cycles of an access to the level 2 cache
+	public int memoryAccess = 50; // Cycles of an access going past the last level, to memory
+	public int l1Writeback = 8; // Cycles of writing a dirty word back from a level 1 cache
+	public int l2Writeback = 50; // Cycles of writing a dirty word back from the level 2 cache to memory
+	public int vectorElement = 1; // Cycles of each element worked on by a vector instruction
+
+	// Class constructor, with one cycle per instruction apart from multiplication, division and floating point
+	public TimingModel() {
+		for (int opcode = 0; opcode < opcodeLatency.length; opcode++) {
+			opcodeLatency[opcode] = 1;
+		}
+		opcodeLatency[0b010000] = 4; // MLT
+		opcodeLatency[0b010001] = 20; // DVD
+		opcodeLatency[0b011011] = 4; // FADD
+		opcodeLatency[0b011100] = 4; // FSUB
+		opcodeLatency[0b011111] = 4; // CNVRT
+		opcodeLatency[0b101100] = 4; // FMUL
+		opcodeLatency[0b101101] = 12; // FDIV
+	}
+
+	// Function building a model from the timing.<MNEMONIC> properties (ex: timing.MLT=4) and timing.l1i, timing.l1d,
+	// timing.l2, timing.memory, timing.l1.writeback, timing.l2.writeback and timing.vector, keeping the defaults for the
+	// ones not set
+	public static TimingModel fromProperties(Properties properties) {
+		TimingModel model = new TimingModel();
+		for (int opcode = 0; opcode < model.opcodeLatency.length; opcode++) {
+			model.opcodeLatency[opcode] = intProperty(properties, "timing." + CPU.mnemonic(opcode),
+					model.opcodeLatency[opcode]);
+		}
+		model.l1iAccess = intProperty(properties, "timing.l1i", model.l1iAccess);
+		model.l1dAccess = intProperty(properties, "timing.l1d", model.l1dAccess);
+		model.l2Access = intProperty(properties, "timing.l2", model.l2Access);
+		model.memoryAccess = intProperty(properties, "timing.memory", model.memoryAccess);
+		model.l1Writeback = intProperty(properties, "timing.l1.writeback", model.l1Writeback);
+		model.l2Writeback = intProperty(properties, "timing.l2.writeback", model.l2Writeback);
+		model.vectorElement = intProperty(properties, "timing.vector", model.vectorElement);
+		return model;
+	}
+
+	// Helper function reading a number of cycles from the properties
+	private static int intProperty(Properties properties, String name, int defaultValue) {
+		String value = properties.getProperty(name);
+		return value == null ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	// Function returning the cycles spent executing the instructions, memory accesses aside
+	public long executionCycles(PerformanceCounters counters) {
+		long cycles = 0;
+		for (int opcode = 0; opcode < opcodeLatency.length; opcode++) {
+			cycles += counters.retiredPerOpcode[opcode] * opcodeLatency[opcode];
+		}
+		return cycles + counters.vectorElements * vectorElement;
+	}
+
+	// Function returning the accesses that went past the last cache level to read memory. Misses of writes only
+	// allocating their line (and the level 2 lines reserved for them) read nothing, so are not counted
+	public static long memoryAccesses(CacheHierarchy caches) {
+		long reads = 0;
+		for (Cache level : caches.getLevels()) {
+			reads += level.memoryReads;
+		}
+		return reads;
+	}
+
+	// Function returning the cycles spent accessing the caches and memory, in the accesses the caches counted so far
+	public long cacheCycles(CacheHierarchy caches) {
+		long cycles = (caches.l1i.hits + caches.l1i.misses) * l1iAccess
+				+ (caches.l1d.hits + caches.l1d.misses) * l1dAccess
+				+ memoryAccesses(caches) * memoryAccess
+				+ (caches.l1i.writebacks + caches.l1d.writebacks) * l1Writeback;
+		if (caches.l2 != null) {
+			cycles += (caches.l2.hits + caches.l2.misses) * l2Access + caches.l2.writebacks * l2Writeback;
+		}
+		return cycles;
+	}
+
+	// Function returning the total cycles of the run
+	public long totalCycles(PerformanceCounters counters, CacheHierarchy caches) {
+		return executionCycles(counters) + cacheCycles(caches);
+	}
+
+	// Function returning the average cycles per instruction of the run
+	public double getCPI(PerformanceCounters counters, CacheHierarchy caches) {
+		return counters.instructionsRetired == 0 ? 0
+				: (double) totalCycles(counters, caches) / counters.instructionsRetired;
+	}
+
+	// Build a plain text report of the cycles of the run, per opcode and per memory event
+	public String report(PerformanceCounters counters, CacheHierarchy caches) {
+		long total = totalCycles(counters, caches);
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Cycles: %d, CPI %.2f%n", total, getCPI(counters, caches)));
+
+		for (int opcode = 0; opcode < opcodeLatency.length; opcode++) {
+			if (counters.retiredPerOpcode[opcode] != 0) {
+				appendLine(sb, CPU.mnemonic(opcode), counters.retiredPerOpcode[opcode], opcodeLatency[opcode], total);
+			}
+		}
+		appendLine(sb, "Vector elements", counters.vectorElements, vectorElement, total);
+		appendLine(sb, "L1I accesses", caches.l1i.hits + caches.l1i.misses, l1iAccess, total);
+		appendLine(sb, "L1D accesses", caches.l1d.hits + caches.l1d.misses, l1dAccess, total);
+		if (caches.l2 != null) {
+			appendLine(sb, "L2 accesses", caches.l2.hits + caches.l2.misses, l2Access, total);
+		}
+		appendLine(sb, "Memory accesses", memoryAccesses(caches), memoryAccess, total);
+		appendLine(sb, "L1 writebacks", caches.l1i.writebacks + caches.l1d.writebacks, l1Writeback, total);
+		if (caches.l2 != null) {
+			appendLine(sb, "L2 writebacks", caches.l2.writebacks, l2Writeback, total);
+		}
+		return sb.toString();
+	}
+
+	// Helper function adding a line of the report: what was counted, how many times, at how many cycles each
+	private static void appendLine(StringBuilder sb, String name, long count, int latency, long total) {
+		if (count == 0) {
+			return;
+		}
+		long cycles = count * latency;
+		sb.append(String.format("  %-18s %10d x %3d = %12d  %5.1f%%%n", name, count, latency, cycles,
+				total == 0 ? 0 : 100.0 * cycles / total));
+	}
+}
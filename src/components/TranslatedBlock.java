@@ -0,0 +1,76 @@
+package components;
+
+import java.io.FileNotFoundException;
+
+/* The TranslatedBlock class is a basic block of the program (a run of instructions entered at its first address and
+ * left at its last, which is a branch, TRAP or HALT) translated by the BlockTranslator into one step per instruction,
+ * each step being a closure with the fields of its instruction already folded in. The machine runs the whole block
+ * without going back to its fetch and decode loop, leaving the CPU registers as the interpreter would after each
+ * instruction.
+ * A block is dropped by the DecodedInstructionCache as soon as one of its words is written, and stops after the
+ * instruction that wrote it.
+ */
+final class TranslatedBlock {
+
+	// One translated instruction, run with MAR, MBR and IR already set for it
+	@FunctionalInterface
+	interface Step {
+		void run() throws InterruptedException, FileNotFoundException;
+	}
+
+	final int start; // Address of the first instruction
+	private final DecodedInstruction[] instructions;
+	private final Step[] steps;
+	private final Machine machine;
+	private final BlockTranslator translator;
+	boolean valid = true; // Cleared when the block is dropped
+
+	TranslatedBlock(int start, DecodedInstruction[] instructions, Step[] steps, Machine machine,
+			BlockTranslator translator) {
+		this.start = start;
+		this.instructions = instructions;
+		this.steps = steps;
+		this.machine = machine;
+		this.translator = translator;
+	}
+
+	// Function called when one of the words of the block is written
+	void rewritten() {
+		valid = false;
+		translator.blockRewritten(start);
+	}
+
+	// Number of instructions in the block
+	int length() {
+		return steps.length;
+	}
+
+	// Function running the block from its first instruction, PC being its start address. It stops early when the
+	// machine halts or the block is written to. Returns the number of instructions executed
+	int execute() throws InterruptedException, FileNotFoundException {
+		CPU cpu = machine.cpu;
+		PerformanceCounters counters = machine.counters;
+		CacheHierarchy caches = machine.caches;
+		Memory memory = machine.memory;
+		int executed = 0;
+		while (executed < steps.length) {
+			DecodedInstruction instruction = instructions[executed];
+			// The word is still fetched through the instruction cache, only its decoding and dispatch are saved
+			cpu.MAR = start + executed;
+			cpu.MBR = caches.readInstruction(cpu.MAR, memory);
+			cpu.IR = cpu.MBR;
+
+			steps[executed].run();
+			counters.instructionRetired(instruction.opcode);
+			cpu.PC++;
+			executed++;
+
+			if (machine.isHalted() || !valid) {
+				break;
+			}
+		}
+		// The decoded fields are only needed by the consoles, so they are set for the last instruction only
+		cpu.setDecodedFields(instructions[executed - 1]);
+		return executed;
+	}
+}
@@ -0,0 +1,60 @@
+package components;
+
+import java.util.Arrays;
+
+/* Tree pseudo-LRU replacement: each set keeps a binary tree of ways-1 bits (ways must be a power of two). Every fill or
+ * hit flips the bits on the path to the way so they point away from it, and the victim is found by following the bits
+ * from the root.
+ */
+public class TreePLRUReplacementPolicy implements ReplacementPolicy {
+
+	private final int ways;
+	private final long[] treeBits; // For each set, bit n is node n of the tree (root is node 1), set when the node points right
+
+	public TreePLRUReplacementPolicy(int numberOfSets, int ways) {
+		if (Integer.bitCount(ways) != 1 || ways > 64) {
+			throw new IllegalArgumentException("Tree PLRU needs a power of two number of ways up to 64: " + ways);
+		}
+		this.ways = ways;
+		this.treeBits = new long[numberOfSets];
+	}
+
+	public void lineFilled(int set, int way) {
+		lineAccessed(set, way);
+	}
+
+	public void lineAccessed(int set, int way) {
+		long bits = treeBits[set];
+		int node = 1;
+		for (int half = ways >> 1; half > 0; half >>= 1) {
+			if ((way & half) != 0) {
+				// The way is in the right half, so point the node to the left
+				bits &= ~(1L << node);
+				node = node * 2 + 1;
+			} else {
+				bits |= 1L << node;
+				node = node * 2;
+			}
+		}
+		treeBits[set] = bits;
+	}
+
+	public int victim(int set) {
+		long bits = treeBits[set];
+		int node = 1;
+		int way = 0;
+		for (int half = ways >> 1; half > 0; half >>= 1) {
+			if ((bits & (1L << node)) != 0) {
+				way |= half;
+				node = node * 2 + 1;
+			} else {
+				node = node * 2;
+			}
+		}
+		return way;
+	}
+
+	public void reset() {
+		Arrays.fill(treeBits, 0);
+	}
+}
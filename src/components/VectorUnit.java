@@ -0,0 +1,102 @@
+package components;
+
+/* The VectorUnit class runs the vector instructions (VADD, VSUB, VMUL and VDOT) on whole ranges of memory at once.
+ * The two vectors of an instruction are contiguous, the second one right after the first. Rather than going through
+ * the caches one element at a time, the unit writes the dirty copies of both ranges back to memory, works on the words
+ * of memory directly in plain loops the JIT compiler can vectorize, and brings the cached copies of the range it wrote
+ * up to date (dropping the decoded ones), so the caches and the decoded instruction cache stay coherent with memory.
+ * The caches are still charged with the walk, one access per data cache line of each range (see
+ * CacheHierarchy.accessRange), so their counters, prefetchers and trace see vector traffic the same way whether a trace
+ * is being recorded or not.
+ * Vectors touching the reserved addresses or going past the end of memory are still worked on element by element
+ * through the caches, which report the faults.
+ */
+final class VectorUnit {
+
+	// The operations applied element by element, the result replacing the first vector
+	enum Operation {
+		ADD, SUBTRACT, MULTIPLY
+	}
+
+	static final int FIRST_CACHED_ADDRESS = 6; // Addresses below are reserved and not cached
+
+	private VectorUnit() {
+	}
+
+	// Function telling whether the words from start (included) to end (excluded) can be worked on in memory directly
+	static boolean inBulk(int start, int end, Memory memory, CacheHierarchy caches) {
+		return start >= FIRST_CACHED_ADDRESS && end <= memory.SIZE && end <= caches.MEMORYSIZE;
+	}
+
+	// Function replacing each element of the vector of the given length at first with itself and the matching element
+	// of the vector right after it, through the operation
+	static void apply(Operation operation, int first, int length, Memory memory, CacheHierarchy caches) {
+		int second = first + length;
+		if (!inBulk(first, second + length, memory, caches)) {
+			for (int i = 0; i < length; i++) {
+				int a = caches.read(first + i, memory);
+				int b = caches.read(second + i, memory);
+				caches.write(first + i, combine(operation, a, b), memory);
+			}
+			return;
+		}
+
+		caches.accessRange(first, second + length, false, memory);
+		caches.flushRange(first, second + length, memory);
+		short[] words = memory.addr;
+		switch (operation) {
+		case ADD:
+			for (int i = 0; i < length; i++) {
+				words[first + i] = (short) (words[first + i] + words[second + i]);
+			}
+			break;
+		case SUBTRACT:
+			for (int i = 0; i < length; i++) {
+				words[first + i] = (short) (words[first + i] - words[second + i]);
+			}
+			break;
+		case MULTIPLY:
+		default:
+			for (int i = 0; i < length; i++) {
+				words[first + i] = (short) (words[first + i] * words[second + i]);
+			}
+			break;
+		}
+		caches.refreshRange(first, first + length, memory);
+		caches.accessRange(first, first + length, true, memory);
+	}
+
+	// Function returning the sum of the products of the elements of the vector of the given length at first and of the
+	// vector right after it, the elements being signed
+	static long dot(int first, int length, Memory memory, CacheHierarchy caches) {
+		int second = first + length;
+		long sum = 0;
+		if (!inBulk(first, second + length, memory, caches)) {
+			for (int i = 0; i < length; i++) {
+				sum += (short) caches.read(first + i, memory) * (short) caches.read(second + i, memory);
+			}
+			return sum;
+		}
+
+		caches.accessRange(first, second + length, false, memory);
+		caches.flushRange(first, second + length, memory);
+		short[] words = memory.addr;
+		for (int i = 0; i < length; i++) {
+			sum += words[first + i] * words[second + i];
+		}
+		return sum;
+	}
+
+	// Helper function applying the operation to two elements, returning the 16 bit result
+	private static int combine(Operation operation, int a, int b) {
+		switch (operation) {
+		case ADD:
+			return (a + b) & Word.MASK;
+		case SUBTRACT:
+			return (a - b) & Word.MASK;
+		case MULTIPLY:
+		default:
+			return (a * b) & Word.MASK;
+		}
+	}
+}
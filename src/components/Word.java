@@ -0,0 +1,35 @@
+package components;
+
+/* The Word class groups the helpers used to move between the machine's 16 bit words, which are held as primitive
+ * values everywhere inside the simulator, and their binary string form, which is only needed at the edges
+ * (loading program files, reading the toggles and displaying values on the consoles).
+ */
+public final class Word {
+
+	public static final int BITS = 16; // Number of bits in a machine word
+	public static final int MASK = 0xFFFF; // Mask used to truncate a value to a machine word
+
+	private Word() {
+	}
+
+	// Convert a binary string (ex: "0000000000000101") to its value, ignoring surrounding spaces
+	public static int parse(String binary) {
+		return Integer.parseInt(binary.trim(), 2) & MASK;
+	}
+
+	// Convert a value to a zero padded binary string of the given number of bits (ex: 5 with 16 bits gives
+	// "0000000000000101"). Only the lowest "bits" bits of the value are kept.
+	public static String toBinaryString(int value, int bits) {
+		char[] digits = new char[bits];
+		for (int i = bits - 1; i >= 0; i--) {
+			digits[i] = (value & 1) == 0 ? '0' : '1';
+			value >>>= 1;
+		}
+		return new String(digits);
+	}
+
+	// Convert a value to a 16 bit binary string
+	public static String toBinaryString(int value) {
+		return toBinaryString(value, BITS);
+	}
+}
@@ -6,10 +6,19 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
-public class Console extends JFrame {
+import components.MachineSnapshot;
+import components.Word;
+
+public class Console extends JFrame implements components.Peripherals, components.MachineObserver {
 	/**
 	 * Generated by Eclipse
 	 */
@@ -17,6 +26,9 @@ public class Console extends JFrame {
 
 	public boolean isNotHalted = true;
 
+	// File standing in for the card reader, loaded by Load P2 and read and written by IN and OUT (device 2)
+	public String cardReaderFileName = "Card_Reader.txt";
+
 	// ****
 	// Declaring the frame components
 	// ****
@@ -106,6 +118,8 @@ public class Console extends JFrame {
 	JButton loadProgram1Button;
 	JButton loadProgram2Button;
 	JButton runProgramButton;
+	JButton pauseButton;
+	JButton stopButton;
 	JButton oneStepButton;
 	JButton depositInstructionButton;
 	JButton changePCButton;
@@ -196,7 +210,6 @@ public class Console extends JFrame {
 		btnIPL.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
 				components.Main.iplButtonClicked();
-				haltConsole(false);
 			}
 		});
 		ConsoleStyleProperties.applyButtonProperties(btnIPL);
@@ -245,6 +258,26 @@ public class Console extends JFrame {
 		ConsoleStyleProperties.applyButtonProperties(runProgramButton);
 		buttonPanel.add(runProgramButton);
 
+		pauseButton = new JButton("Pause");
+		pauseButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				components.Main.pauseButtonClicked();
+			}
+		});
+		ConsoleStyleProperties.applyButtonProperties(pauseButton);
+		pauseButton.setEnabled(false);
+		buttonPanel.add(pauseButton);
+
+		stopButton = new JButton("Stop");
+		stopButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				components.Main.stopButtonClicked();
+			}
+		});
+		ConsoleStyleProperties.applyButtonProperties(stopButton);
+		stopButton.setEnabled(false);
+		buttonPanel.add(stopButton);
+
 		oneStepButton = new JButton("One Step");
 		oneStepButton.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
@@ -337,7 +370,7 @@ public class Console extends JFrame {
 			JButton newButton = new JButton("Deposit to " + indexAndGPRLabelNames[i]);
 			newButton.addActionListener(new ActionListener() {
 				public void actionPerformed(ActionEvent e) {
-					components.Main.depositToRegisterButtonClicked(e);
+					components.Main.depositToRegisterButtonClicked(e.getActionCommand());
 				}
 			});
 			ConsoleStyleProperties.applyDepositButtonProperties(newButton);
@@ -564,31 +597,29 @@ public class Console extends JFrame {
 	// ****
 
 	// Update the UI with the current values for each element
-	public void updateUI(components.CPU cpu, components.Memory memory, components.L1Cache l1cache) {
+	public void updateUI(MachineSnapshot cpu) {
 		// Update the different registers with their new values
-		indexAndGPRLabelOutputs[0].setText(cpu.R[0]);
-		indexAndGPRLabelOutputs[1].setText(cpu.R[1]);
-		indexAndGPRLabelOutputs[2].setText(cpu.R[2]);
-		indexAndGPRLabelOutputs[3].setText(cpu.R[3]);
-		indexAndGPRLabelOutputs[4].setText(cpu.X[1]);
-		indexAndGPRLabelOutputs[5].setText(cpu.X[2]);
-		indexAndGPRLabelOutputs[6].setText(cpu.X[3]);
-		indexAndGPRLabelOutputs[7].setText(cpu.FPR[0]);
-		indexAndGPRLabelOutputs[8].setText(cpu.FPR[1]);
+		// The snapshot holds primitive values so the binary strings are only built here
+		indexAndGPRLabelOutputs[0].setText(Word.toBinaryString(cpu.R[0]));
+		indexAndGPRLabelOutputs[1].setText(Word.toBinaryString(cpu.R[1]));
+		indexAndGPRLabelOutputs[2].setText(Word.toBinaryString(cpu.R[2]));
+		indexAndGPRLabelOutputs[3].setText(Word.toBinaryString(cpu.R[3]));
+		indexAndGPRLabelOutputs[4].setText(Word.toBinaryString(cpu.X[1]));
+		indexAndGPRLabelOutputs[5].setText(Word.toBinaryString(cpu.X[2]));
+		indexAndGPRLabelOutputs[6].setText(Word.toBinaryString(cpu.X[3]));
+		indexAndGPRLabelOutputs[7].setText(Word.toBinaryString(cpu.FPR[0]));
+		indexAndGPRLabelOutputs[8].setText(Word.toBinaryString(cpu.FPR[1]));
 		textPC.setText(String.valueOf(cpu.PC));
 		textMAR.setText(String.valueOf(cpu.MAR));
-		textMBR.setText(cpu.MBR);
-		textIR.setText(cpu.IR);
-		textCC.setText(cpu.CC);
-		textMFR.setText(cpu.MFR);
-		textOpcode.setText(cpu.opcode);
+		textMBR.setText(Word.toBinaryString(cpu.MBR));
+		textIR.setText(Word.toBinaryString(cpu.IR));
+		textCC.setText(Word.toBinaryString(cpu.CC, 4));
+		textMFR.setText(Word.toBinaryString(cpu.MFR, 4));
+		textOpcode.setText(Word.toBinaryString(cpu.opcode, 6));
 		textGPR.setText(String.valueOf(cpu.GPR));
 		textIX.setText(String.valueOf(cpu.IX));
 		textInstructionNumber.setText(String.valueOf(cpu.I));
-		textAddress.setText(cpu.address);
-
-		components.Main.technicianConsole.updateMemoryOutput(cpu, memory);
-		components.Main.technicianConsole.updateCacheOutput(l1cache);
+		textAddress.setText(Word.toBinaryString(cpu.address, 5));
 	}
 
 	// Function to be used whenever we want to display a status update in the Output
@@ -604,7 +635,99 @@ public class Console extends JFrame {
 
 	// Function to read the input for either Depositing an instruction or changing
 	// the PC
+	// The machine may be running on a thread of its own, the functions below called by it get over to the Swing event
+	// thread
+	@Override
+	public String readKeyboard() {
+		return onEventThreadAndWait(() -> JOptionPane.showInputDialog("Console is Requesting Input: "));
+	}
+
+	// The card reader is a file, read by IN and overwritten by OUT (device 2)
+	@Override
+	public String readCardReader() {
+		try (BufferedReader br = new BufferedReader(new FileReader(cardReaderFileName))) {
+			return br.readLine();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public void writeCardReader(String text) {
+		try (FileWriter outputFileWriter = new FileWriter(cardReaderFileName)) {
+			outputFileWriter.write(text);
+		} catch (IOException e) {
+			showError("ERROR: Can't setup file writer in OUT instruction");
+		}
+	}
+
+	@Override
+	public void showError(String message) {
+		onEventThreadAndWait(() -> {
+			JOptionPane.showMessageDialog(null, message);
+			return null;
+		});
+	}
+
+	// Function clearing the printer and the output field
+	public void clearOutput() {
+		textConsolePrinter.setText("");
+		textStatus.setText("");
+	}
+
+	@Override
+	public void machineReset(components.Machine machine) {
+		onEventThread(() -> clearOutput());
+	}
+
+	// The snapshot is taken by the caller, which owns the machine, then displayed on the event thread
+	@Override
+	public void machineUpdated(components.Machine machine) {
+		MachineSnapshot snapshot = new MachineSnapshot(machine);
+		onEventThread(() -> updateUI(snapshot));
+	}
+
+	@Override
+	public void machineHalted(components.Machine machine, boolean halted) {
+		onEventThread(() -> haltConsole(halted));
+	}
+
+	@Override
+	public void statusMessage(components.Machine machine, String text) {
+		onEventThread(() -> writeToOutput(text));
+	}
+
+	// Helper function running an action on the Swing event thread: right away when called from it, later otherwise
+	private static void onEventThread(Runnable action) {
+		if (SwingUtilities.isEventDispatchThread()) {
+			action.run();
+		} else {
+			SwingUtilities.invokeLater(action);
+		}
+	}
+
+	// Helper function running a function on the Swing event thread and waiting for its result
+	private static <T> T onEventThreadAndWait(Supplier<T> function) {
+		if (SwingUtilities.isEventDispatchThread()) {
+			return function.get();
+		}
+		AtomicReference<T> result = new AtomicReference<>();
+		try {
+			SwingUtilities.invokeAndWait(() -> result.set(function.get()));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		return result.get();
+	}
+
 	public String readToggleInput() {
+		return onEventThreadAndWait(() -> readToggles());
+	}
+
+	// Helper function reading the toggles as a string of bits
+	private String readToggles() {
 		StringBuilder sb = new StringBuilder();
 
 		for (int i = 0; i < toggleButtons.length; i++) {
@@ -624,30 +747,49 @@ public class Console extends JFrame {
 
 		isNotHalted = !toHalt;
 
-		loadProgram1Button.setEnabled(isNotHalted);
-		loadProgram2Button.setEnabled(isNotHalted);
-		oneStepButton.setEnabled(isNotHalted);
-		depositInstructionButton.setEnabled(isNotHalted);
-		changePCButton.setEnabled(isNotHalted);
-		changeMARButton.setEnabled(isNotHalted);
-		showTechniciansConsoleButton.setEnabled(isNotHalted);
-		runProgramButton.setEnabled(isNotHalted);
+		enableControls(isNotHalted);
 
-		for (JToggleButton toggleButton : toggleButtons) {
-			toggleButton.setEnabled(isNotHalted);
+		if (!isNotHalted) {
+			writeToOutput("Machine halted");
 		}
 
-		for (JButton registerDepositButton : indexAndGPRButtonObjects) {
-			registerDepositButton.setEnabled(isNotHalted);
-		}
+	}
 
-		if (!isNotHalted) {
-			writeToOutput("Machine halted");
+	// Function switching the console to the controls of a program running in the background (Pause and Stop only),
+	// or back to the ones of a halted or idle machine
+	public void setRunning(boolean running) {
+		enableControls(!running && isNotHalted);
+		btnIPL.setEnabled(!running);
+		pauseButton.setEnabled(running);
+		stopButton.setEnabled(running);
+	}
+
+	// Helper function enabling the buttons that are only usable when the machine is not halted
+	private void enableControls(boolean enabled) {
+		loadProgram1Button.setEnabled(enabled);
+		loadProgram2Button.setEnabled(enabled);
+		oneStepButton.setEnabled(enabled);
+		depositInstructionButton.setEnabled(enabled);
+		changePCButton.setEnabled(enabled);
+		changeMARButton.setEnabled(enabled);
+		showTechniciansConsoleButton.setEnabled(enabled);
+		runProgramButton.setEnabled(enabled);
+
+		for (JToggleButton toggleButton : toggleButtons) {
+			toggleButton.setEnabled(enabled);
 		}
 
+		for (JButton registerDepositButton : indexAndGPRButtonObjects) {
+			registerDepositButton.setEnabled(enabled);
+		}
 	}
 
 	public void appendToConsolePrinter(String toAppend, boolean inline) {
+		onEventThread(() -> appendToPrinter(toAppend, inline));
+	}
+
+	// Helper function adding text to the console printer
+	private void appendToPrinter(String toAppend, boolean inline) {
 		if (textConsolePrinter.getText().length() == 0) {
 			// If empty just add text
 			textConsolePrinter.setText(toAppend.trim());
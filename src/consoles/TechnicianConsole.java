@@ -7,15 +7,20 @@ import java.awt.Font;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 
+import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
 
-public class TechnicianConsole extends JFrame {
+public class TechnicianConsole extends JFrame implements components.MachineObserver {
 
 	/**
 	 * Generated by Eclipse
@@ -25,6 +30,10 @@ public class TechnicianConsole extends JFrame {
 	// Title label across the top
 	private JLabel titleLabel;
 
+	// Record the cache accesses of a run, then replay them through many cache shapes
+	JButton recordTraceButton;
+	JButton sweepCachesButton;
+
 	// Display some of the content of RAM
 	JLabel lblMemory;
 	JTextArea textMemory;
@@ -35,11 +44,16 @@ public class TechnicianConsole extends JFrame {
 	JTextArea textCache;
 	JScrollPane textCacheScrollPane;
 
+	// Display performance counters
+	JLabel lblCounters;
+	JTextArea textCounters;
+	JScrollPane textCountersScrollPane;
+
 	// Constructor
 	public TechnicianConsole(String title) {
 		// General setup of the window
 		super(title);
-		this.setSize(1200, 600);
+		this.setSize(1200, 800);
 		this.setLocation(150, 100);
 
 		arrangeComponentsOnConsole();
@@ -80,6 +94,26 @@ public class TechnicianConsole extends JFrame {
 		titleLabel.setOpaque(true);
 		topPanel.add(titleLabel);
 
+		recordTraceButton = new JButton("Record Trace");
+		recordTraceButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				boolean record = recordTraceButton.getText().equals("Record Trace");
+				components.Main.recordTraceClicked(record);
+				recordTraceButton.setText(record ? "Stop Recording" : "Record Trace");
+			}
+		});
+		ConsoleStyleProperties.applyButtonProperties(recordTraceButton);
+		topPanel.add(recordTraceButton);
+
+		sweepCachesButton = new JButton("Sweep Caches");
+		sweepCachesButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				showSweepResults(components.Main.sweepCachesClicked());
+			}
+		});
+		ConsoleStyleProperties.applyButtonProperties(sweepCachesButton);
+		topPanel.add(sweepCachesButton);
+
 		// Memory display
 		GridBagConstraints c = new GridBagConstraints(); // Parameters used by the GridBagLayout to arrange components
 		Insets defaultInsets = new Insets(3, 3, 0, 3); // Top, Left, and Right padding
@@ -136,41 +170,120 @@ public class TechnicianConsole extends JFrame {
 		c.gridx = 3;
 		c.gridy = 0;
 		displayPanel.add(textCacheScrollPane, c);
+
+		// Counters Display
+		c = new GridBagConstraints(); // Parameters used by the GridBagLayout to arrange components
+		c.insets = new Insets(25, 3, 0, 3); // Increase padding from the top to 25
+		c.fill = GridBagConstraints.HORIZONTAL;
+
+		lblCounters = new JLabel("Counters:");
+		ConsoleStyleProperties.applyLabelProperties(lblCounters);
+		c.anchor = GridBagConstraints.NORTH; // Display label at the top of its cell
+		c.gridx = 0;
+		c.gridy = 1;
+		c.weightx = .05;
+		displayPanel.add(lblCounters, c);
+
+		textCounters = new JTextArea();
+		textCountersScrollPane = new JScrollPane(textCounters);
+		ConsoleStyleProperties.applyTextAreaProperties(textCounters);
+		c.anchor = GridBagConstraints.CENTER; // back to default
+		c.weightx = 0.5;
+		c.ipady = 120; // a bit shorter than the memory and cache displays
+		c.gridwidth = 6; // spans below the memory and cache displays
+		c.gridx = 1;
+		c.gridy = 1;
+		displayPanel.add(textCountersScrollPane, c);
 	}
 
-	public void updateMemoryOutput(components.CPU cpu, components.Memory memory) {
-		// Clear the memory display content before updating its content
-		textMemory.setText(null);
+	// The text is built by the caller, which owns the machine, then displayed on the event thread
+	@Override
+	public void machineUpdated(components.Machine machine) {
+		String memoryText = formatMemory(machine.memory.addr);
+		String cacheText = formatCaches(machine.caches);
+		String countersText = machine.report();
+
+		Runnable display = () -> {
+			textMemory.setText(memoryText);
+			textCache.setText(cacheText);
+			textCounters.setText(countersText);
+		};
+		if (SwingUtilities.isEventDispatchThread()) {
+			display.run();
+		} else {
+			SwingUtilities.invokeLater(display);
+		}
+	}
+
+	// Function displaying a snapshot taken while the machine runs in the background (on the event thread). The caches
+	// are displayed again once the machine stops
+	public void updateFromSnapshot(components.MachineSnapshot snapshot) {
+		textMemory.setText(formatMemory(snapshot.memory));
+		textCounters.setText(String.format("Running: %d instructions retired (%.2f MIPS)",
+				snapshot.instructionsRetired, snapshot.mips));
+	}
+
+	// Function disabling the controls touching the trace while a program runs in the background, the simulation
+	// thread recording into it (see Console.setRunning), and enabling them again once it stopped
+	public void setRunning(boolean running) {
+		recordTraceButton.setEnabled(!running);
+		sweepCachesButton.setEnabled(!running);
+	}
 
+	// Function building the text of the RAM display
+	private String formatMemory(short[] memory) {
 		StringBuilder sb = new StringBuilder();
 
 		// Updating RAM output
-		for (int i = 0; i < memory.addr.length; i++) {
+		for (int i = 0; i < memory.length; i++) {
 			String tab = ": ";
 			if (i < 10) {
 				tab = "  : ";
 			}
 
-			sb.append(String.valueOf(i) + tab + memory.read(i) + "\n");
-			// textMemory.setText(textMemory.getText() + String.valueOf(i) + tab +
-			// memory.fetchAddr(i) + "\n");
+			sb.append(i).append(tab).append(components.Word.toBinaryString(memory[i])).append("\n");
 		}
 
-		textMemory.setText(sb.toString());
+		return sb.toString();
 	}
 
-	public void updateCacheOutput(components.L1Cache l1cache) {
-		// Clear the cache display content before update its content
-		textCache.setText(null);
-		textCache.setText("      " + "Tag #" + "\t\t" + "Word 00" + "\t\t" + "Word 01" + "\t\t" + "Word 10" + "\t\t"
-				+ "Word 11" + "\n");
-		for (int i = 0; i < l1cache.cache.size(); i++) {
-			String tab = ":";
-			if (i < 10) {
-				tab = "  : ";
+	// Function building the text of the cache display
+	private String formatCaches(components.CacheHierarchy caches) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Level 2 cache is ").append(caches.l2 == null ? "not present" : caches.inclusion.toString().toLowerCase())
+				.append("\n");
+
+		// Display each level with its counters followed by the lines it holds
+		for (components.Cache level : caches.getLevels()) {
+			sb.append("\n").append(level.name).append(": ").append(level.configuration).append("\n");
+			sb.append("hits: ").append(level.hits).append(", misses: ").append(level.misses).append(", evictions: ")
+					.append(level.evictions).append(", writebacks: ").append(level.writebacks).append(String.format(", hit rate: %.1f%%", level.getHitRate())).append("\n");
+			sb.append(level.describeFills());
+			sb.append("      " + "Tag #" + "\t");
+			for (int offset = 0; offset < level.WORDSPERLINE; offset++) {
+				sb.append("\t" + "Word " + offset + "\t");
+			}
+			sb.append("\n");
+			for (int i = 0; i < level.MAXNUMBEROFLINES; i++) {
+				if (!level.isLineInUse(i)) {
+					continue;
+				}
+				String tab = ":";
+				if (i < 10) {
+					tab = "  : ";
+				}
+				sb.append(i).append(tab).append(level.getWordsFromLine(i)).append("\n");
 			}
-			textCache.setText(textCache.getText() + String.valueOf(i) + tab + l1cache.getWordsFromLine(i) + "\n");
 		}
+		return sb.toString();
+	}
+
+	// Function displaying the table produced by a cache sweep in a dialog
+	public void showSweepResults(String table) {
+		JTextArea textSweep = new JTextArea(table, 30, 70);
+		textSweep.setFont(new Font("Monospaced", Font.PLAIN, 12));
+		textSweep.setEditable(false);
+		JOptionPane.showMessageDialog(this, new JScrollPane(textSweep), "Cache Sweep", JOptionPane.PLAIN_MESSAGE);
 	}
 
 	// Function to be used whenever we want to clear the RAM field